@@ -0,0 +1,280 @@
+package com.elseff.project.cache;
+
+import com.elseff.project.web.api.modules.article.event.ArticleChangeEvent;
+import com.elseff.project.web.api.modules.comment.event.CommentCountChangeEvent;
+import com.elseff.project.web.api.modules.user.event.UserChangeEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the caches of several nodes coherent through PostgreSQL LISTEN/NOTIFY.
+ * <p>
+ * Changes are sent with {@code pg_notify} inside the transaction that makes them, so PostgreSQL delivers them
+ * to the other nodes only once that transaction commits, and never when it rolls back. Every node listens
+ * on a dedicated connection and publishes a {@link CacheInvalidationEvent} for each change made elsewhere.
+ * Notifications sent while a node is not listening are lost, so after a reconnect it flushes everything.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "cache.invalidation", name = "enabled", havingValue = "true")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CacheInvalidationBus implements SmartLifecycle {
+
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+    final JdbcTemplate jdbcTemplate;
+
+    final ObjectMapper objectMapper;
+
+    final ApplicationEventPublisher eventPublisher;
+
+    final DataSourceProperties dataSourceProperties;
+
+    final String channel;
+
+    final Duration pollInterval;
+
+    final String node = UUID.randomUUID().toString().substring(0, 8);
+
+    final Counter sent;
+
+    final Counter received;
+
+    final Counter reconnects;
+
+    volatile boolean running;
+
+    Thread listener;
+
+    /**
+     * Opened by {@link #start()}, then owned by the listener thread
+     */
+    Connection connection;
+
+    public CacheInvalidationBus(JdbcTemplate jdbcTemplate,
+                                ObjectMapper objectMapper,
+                                ApplicationEventPublisher eventPublisher,
+                                DataSourceProperties dataSourceProperties,
+                                MeterRegistry meterRegistry,
+                                @Value("${cache.invalidation.channel:cache_invalidation}") String channel,
+                                @Value("${cache.invalidation.poll-interval:PT10S}") Duration pollInterval) {
+        if (!CHANNEL.matcher(channel).matches())
+            throw new IllegalArgumentException("channel should be a lowercase identifier, got " + channel);
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.dataSourceProperties = dataSourceProperties;
+        this.channel = channel;
+        this.pollInterval = pollInterval;
+
+        sent = Counter.builder("cache.invalidation.sent")
+                .description("Cache invalidations sent to the other nodes")
+                .register(meterRegistry);
+        received = Counter.builder("cache.invalidation.received")
+                .description("Cache invalidations received from the other nodes")
+                .register(meterRegistry);
+        reconnects = Counter.builder("cache.invalidation.reconnects")
+                .description("Reconnects of the listening connection, each one flushes the caches")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onArticleChange(ArticleChangeEvent event) {
+        send(CacheInvalidationMessage.builder()
+                .entity(CachedEntity.ARTICLE)
+                .id(event.getArticleId())
+                .type(event.getType())
+                .authorId(event.getAuthorId())
+                .title(event.getTitle())
+                .tags(event.getTags())
+                .previousTags(event.getPreviousTags())
+                .build());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onCommentCountChange(CommentCountChangeEvent event) {
+        send(CacheInvalidationMessage.builder()
+                .entity(CachedEntity.ARTICLE)
+                .id(event.getArticleId())
+                .build());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onUserChange(UserChangeEvent event) {
+        send(CacheInvalidationMessage.builder()
+                .entity(CachedEntity.USER)
+                .id(event.getUserId())
+                .build());
+    }
+
+    /**
+     * Runs on the connection of the current transaction, which is always the primary for a writing transaction
+     */
+    private void send(CacheInvalidationMessage message) {
+        message.setNode(node);
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("could not serialize " + message, e);
+        }
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", (RowCallbackHandler) row -> {
+        }, channel, payload);
+        sent.increment();
+    }
+
+    /**
+     * Starts listening before the caches are loaded on {@link org.springframework.boot.context.event.ApplicationReadyEvent},
+     * so that no change committed in between is missed. The application starts even if the database can't be reached,
+     * the listener keeps trying in the background.
+     */
+    @Override
+    public synchronized void start() {
+        running = true;
+        try {
+            connection = listen();
+        } catch (SQLException e) {
+            log.warn("could not listen to cache invalidations, retrying in the background: {}", e.getMessage());
+        }
+        listener = new Thread(this::run, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (listener != null)
+            listener.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        Duration backoff = Duration.ofSeconds(1);
+        boolean missed = connection == null;
+        while (running) {
+            try (Connection listening = connection != null ? connection : listen()) {
+                connection = null;
+                if (missed) {
+                    log.info("listening to cache invalidations again, flushing the caches");
+                    reconnects.increment();
+                    eventPublisher.publishEvent(CacheInvalidationEvent.all());
+                }
+                backoff = Duration.ofSeconds(1);
+                poll(listening);
+            } catch (SQLException e) {
+                if (!running)
+                    break;
+                log.warn("lost the connection listening to cache invalidations, reconnecting in {}: {}",
+                        backoff, e.getMessage());
+                try {
+                    Thread.sleep(backoff.toMillis());
+                } catch (InterruptedException interrupted) {
+                    break;
+                }
+                backoff = backoff.multipliedBy(2).compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff.multipliedBy(2);
+            }
+            missed = true;
+        }
+        log.debug("stopped listening to cache invalidations");
+    }
+
+    private void poll(Connection listening) throws SQLException {
+        PGConnection pgConnection = listening.unwrap(PGConnection.class);
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications((int) pollInterval.toMillis());
+            if (notifications == null || notifications.length == 0) {
+                // a connection that died silently only shows up on a round trip
+                if (!listening.isValid((int) pollInterval.toSeconds() + 1))
+                    throw new SQLException("connection is no longer valid");
+                continue;
+            }
+            for (PGNotification notification : notifications)
+                receive(notification.getParameter());
+        }
+    }
+
+    /**
+     * Publishes the change sent by another node, the ones sent by this node are ignored
+     */
+    void receive(String payload) {
+        CacheInvalidationMessage message;
+        try {
+            message = objectMapper.readValue(payload, CacheInvalidationMessage.class);
+        } catch (JsonProcessingException e) {
+            log.warn("ignoring malformed cache invalidation {}", payload);
+            return;
+        }
+        if (node.equals(message.getNode()))
+            return;
+
+        received.increment();
+        ArticleChangeEvent articleChange = message.getType() == null
+                ? null
+                : new ArticleChangeEvent(message.getType(), message.getId(), message.getAuthorId(),
+                message.getTitle(), message.getTags(), message.getPreviousTags());
+        try {
+            eventPublisher.publishEvent(CacheInvalidationEvent.of(message.getEntity(), message.getId(), articleChange));
+        } catch (RuntimeException e) {
+            // the listener must survive a failing cache, the next flush or check repairs it
+            log.error("could not apply cache invalidation {}", payload, e);
+        }
+    }
+
+    /**
+     * A connection outside the pool, always to the primary, in auto-commit mode so LISTEN takes effect at once
+     */
+    private Connection listen() throws SQLException {
+        Properties properties = new Properties();
+        if (dataSourceProperties.determineUsername() != null)
+            properties.setProperty("user", dataSourceProperties.determineUsername());
+        if (dataSourceProperties.determinePassword() != null)
+            properties.setProperty("password", dataSourceProperties.determinePassword());
+        properties.setProperty("tcpKeepAlive", "true");
+        properties.setProperty("ApplicationName", "cache-invalidation-" + node);
+
+        Connection opened = DriverManager.getConnection(dataSourceProperties.determineUrl(), properties);
+        try (Statement statement = opened.createStatement()) {
+            opened.setAutoCommit(true);
+            statement.execute("LISTEN " + channel);
+        } catch (SQLException e) {
+            opened.close();
+            throw e;
+        }
+        log.info("node {} listens to cache invalidations on channel {}", node, channel);
+        return opened;
+    }
+}
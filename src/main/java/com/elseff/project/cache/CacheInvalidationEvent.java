@@ -0,0 +1,46 @@
+package com.elseff.project.cache;
+
+import com.elseff.project.web.api.modules.article.event.ArticleChangeEvent;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Published on this node by the {@link CacheInvalidationBus} for a change committed on another node.
+ * Not published inside a transaction, so listeners use {@link org.springframework.context.event.EventListener}.
+ */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CacheInvalidationEvent {
+
+    /**
+     * null when every cache has to be flushed
+     */
+    CachedEntity entity;
+
+    Long id;
+
+    /**
+     * The change as published on the other node, null unless an article was created, updated or deleted
+     */
+    ArticleChangeEvent articleChange;
+
+    /**
+     * Changes may have been missed, e.g. while the listening connection was down
+     */
+    public static CacheInvalidationEvent all() {
+        return new CacheInvalidationEvent(null, null, null);
+    }
+
+    public static CacheInvalidationEvent of(CachedEntity entity, Long id, ArticleChangeEvent articleChange) {
+        return new CacheInvalidationEvent(entity, id, articleChange);
+    }
+
+    public boolean isAll() {
+        return entity == null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.elseff.project.cache;
+
+import com.elseff.project.web.api.modules.article.event.ArticleChangeType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.Set;
+
+/**
+ * Payload of a notification. Kept well below the 8000 bytes allowed by PostgreSQL:
+ * a title takes up to 120 characters and an article up to 10 tags of 50 characters.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CacheInvalidationMessage {
+
+    /**
+     * Node that made the change, it has already updated its own caches
+     */
+    String node;
+
+    CachedEntity entity;
+
+    Long id;
+
+    ArticleChangeType type;
+
+    Long authorId;
+
+    String title;
+
+    Set<String> tags;
+
+    Set<String> previousTags;
+}
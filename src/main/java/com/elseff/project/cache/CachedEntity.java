@@ -0,0 +1,6 @@
+package com.elseff.project.cache;
+
+public enum CachedEntity {
+    ARTICLE,
+    USER
+}
@@ -0,0 +1,40 @@
+package com.elseff.project.cache;
+
+import com.elseff.project.persistense.UserEntity;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Evicts the second level cache entries of users changed on another node. Query results are evicted as a whole:
+ * the update timestamps that invalidate them locally only see changes made on this node. Roles are never changed
+ * by the application, they are evicted only with everything else.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class HibernateCacheInvalidator {
+
+    EntityManagerFactory entityManagerFactory;
+
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        if (event.isAll()) {
+            cache.evictAllRegions();
+            log.debug("evicted all second level cache regions");
+        } else if (event.getEntity() == CachedEntity.USER) {
+            cache.evictEntityData(UserEntity.class, event.getId());
+            cache.evictCollectionData(UserEntity.class.getName() + ".roles", event.getId());
+            cache.evictQueryRegions();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.elseff.project.cache;
+
+import com.elseff.project.config.datasource.ReadYourWritesTracker;
+import com.elseff.project.exception.NotFoundException;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeEvent;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeType;
+import com.elseff.project.web.api.modules.user.event.UserChangeEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Remembers ids that were not found for {@code negative-cache.ttl}, so repeated requests for missing ids
+ * are answered without a query.
+ * <p>
+ * An id is forgotten once an entity with that id is created, here or on another node. A lookup that misses
+ * while the creating transaction commits can still be remembered, until the entry expires.
+ * <p>
+ * With a replica, a miss read from it may only mean that it lags behind. Misses of ids created within
+ * the read-your-writes window are not remembered then, and users pinned to the primary skip the cache,
+ * so the author of a new article doesn't get a 404 for it.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class NegativeCache {
+
+    private static final Boolean MISSING = Boolean.TRUE;
+
+    Map<CachedEntity, Cache<Long, Boolean>> missing = new EnumMap<>(CachedEntity.class);
+
+    /**
+     * Ids created within the read-your-writes window, empty without a replica
+     */
+    Map<CachedEntity, Cache<Long, Boolean>> created = new EnumMap<>(CachedEntity.class);
+
+    /**
+     * null without a replica
+     */
+    ReadYourWritesTracker readYourWritesTracker;
+
+    public NegativeCache(MeterRegistry meterRegistry,
+                         ObjectProvider<ReadYourWritesTracker> readYourWritesTracker,
+                         @Value("${negative-cache.max-size:100000}") long maxSize,
+                         @Value("${negative-cache.ttl:PT30S}") Duration ttl) {
+        this.readYourWritesTracker = readYourWritesTracker.getIfAvailable();
+        for (CachedEntity entity : CachedEntity.values()) {
+            Cache<Long, Boolean> cache = Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .expireAfterWrite(ttl)
+                    .recordStats()
+                    .build();
+            missing.put(entity, cache);
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "missing." + entity.name().toLowerCase(Locale.ROOT));
+
+            if (this.readYourWritesTracker != null)
+                created.put(entity, Caffeine.newBuilder()
+                        .maximumSize(maxSize)
+                        .expireAfterWrite(this.readYourWritesTracker.getWindow())
+                        .build());
+        }
+    }
+
+    /**
+     * Runs the load unless the id is known to be missing, then throws the exception from {@code notFound}.
+     * An id the load doesn't find is remembered.
+     */
+    public <T> T load(CachedEntity entity, Long id, Supplier<T> loader, Supplier<? extends NotFoundException> notFound) {
+        if (readYourWritesTracker != null && readYourWritesTracker.isCurrentUserWithinWindow())
+            return loader.get();
+
+        Cache<Long, Boolean> cache = missing.get(entity);
+        if (cache.getIfPresent(id) != null)
+            throw notFound.get();
+        try {
+            return loader.get();
+        } catch (NotFoundException e) {
+            Cache<Long, Boolean> recentlyCreated = created.get(entity);
+            if (recentlyCreated == null || recentlyCreated.getIfPresent(id) == null)
+                cache.put(id, MISSING);
+            throw e;
+        }
+    }
+
+    @TransactionalEventListener
+    public void onArticleChange(ArticleChangeEvent event) {
+        if (event.getType() == ArticleChangeType.CREATED)
+            onCreated(CachedEntity.ARTICLE, event.getArticleId());
+    }
+
+    @TransactionalEventListener
+    public void onUserChange(UserChangeEvent event) {
+        onCreated(CachedEntity.USER, event.getUserId());
+    }
+
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (event.isAll())
+            missing.values().forEach(Cache::invalidateAll);
+        else
+            onCreated(event.getEntity(), event.getId());
+    }
+
+    private void onCreated(CachedEntity entity, Long id) {
+        Cache<Long, Boolean> recentlyCreated = created.get(entity);
+        if (recentlyCreated != null)
+            recentlyCreated.put(id, Boolean.TRUE);
+        missing.get(entity).invalidate(id);
+    }
+}
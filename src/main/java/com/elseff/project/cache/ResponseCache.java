@@ -0,0 +1,232 @@
+package com.elseff.project.cache;
+
+import com.elseff.project.config.datasource.ReadYourWritesTracker;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeEvent;
+import com.elseff.project.web.api.modules.comment.event.CommentCountChangeEvent;
+import com.elseff.project.web.api.modules.user.event.UserChangeEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the JSON of hot responses serialized and gzipped, so a hit is answered by copying bytes to the response
+ * without loading, mapping, serializing or compressing anything.
+ * <p>
+ * Responses are kept per endpoint, parameters and roles of the caller, and only for requests that prefer JSON,
+ * the others are answered through content negotiation as before. Every change of an article, a comment count
+ * or an author, here or on another node, drops all of them, since any list may show the article. Views are
+ * not a change, the counts in a cached response lag by at most {@code response-cache.ttl}.
+ * <p>
+ * With a replica, a user who has just written reads from the primary for a while. Their responses are neither
+ * taken from the cache nor put in it, a response cached from the replica may not have their write yet.
+ * <p>
+ * Disabled unless {@code response-cache.enabled} is set, then the body is returned as it is. Writes made
+ * without going through the services, as the controller tests do, are not seen by the cache.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ResponseCache {
+
+    private static final String VARY = String.join(", ", HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+
+    ObjectMapper objectMapper;
+
+    boolean enabled;
+
+    /**
+     * null without a replica
+     */
+    ReadYourWritesTracker readYourWritesTracker;
+
+    Cache<List<Object>, CachedResponse> responses;
+
+    /**
+     * Changes on every invalidation, so a response loaded before it isn't kept after it
+     */
+    AtomicLong generation = new AtomicLong();
+
+    public ResponseCache(ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry,
+                         ObjectProvider<ReadYourWritesTracker> readYourWritesTracker,
+                         @Value("${response-cache.enabled:false}") boolean enabled,
+                         @Value("${response-cache.max-size:64MB}") DataSize maxSize,
+                         @Value("${response-cache.ttl:PT5S}") Duration ttl) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.readYourWritesTracker = readYourWritesTracker.getIfAvailable();
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((List<Object> key, CachedResponse response) -> response.json.length + response.gzipped.length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "responses");
+    }
+
+    /**
+     * @param name the endpoint
+     * @param key  its parameters, may be null
+     * @param body loads the body on a miss, its exceptions are thrown as they are
+     */
+    public ResponseEntity<?> load(String name, Object key, Supplier<?> body) {
+        HttpServletRequest request = currentRequest();
+        if (!enabled || request == null || !prefersJson(request))
+            return ResponseEntity.ok(body.get());
+        if (readYourWritesTracker != null && readYourWritesTracker.isCurrentUserWithinWindow())
+            return ResponseEntity.ok(body.get());
+
+        List<Object> responseKey = Arrays.asList(name, key, roles());
+        CachedResponse response = responses.getIfPresent(responseKey);
+        if (response == null) {
+            long loadedIn = generation.get();
+            response = serialize(body.get());
+            responses.put(responseKey, response);
+            // invalidated while loading, the response may be older than the invalidation
+            if (generation.get() != loadedIn)
+                responses.invalidate(responseKey);
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, VARY);
+        if (acceptsGzip(request))
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(response.gzipped);
+        return builder.body(response.json);
+    }
+
+    @TransactionalEventListener
+    public void onArticleChange(ArticleChangeEvent event) {
+        invalidateAll();
+    }
+
+    @TransactionalEventListener
+    public void onCommentCountChange(CommentCountChangeEvent event) {
+        invalidateAll();
+    }
+
+    @TransactionalEventListener
+    public void onUserChange(UserChangeEvent event) {
+        invalidateAll();
+    }
+
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        invalidateAll();
+    }
+
+    private void invalidateAll() {
+        generation.incrementAndGet();
+        responses.invalidateAll();
+    }
+
+    private CachedResponse serialize(Object body) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("could not serialize " + body.getClass().getSimpleName(), e);
+        }
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new CachedResponse(json, gzipped.toByteArray());
+    }
+
+    private static HttpServletRequest currentRequest() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes
+                ? ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest()
+                : null;
+    }
+
+    /**
+     * Whether JSON is what content negotiation would pick, the most specific and preferred type accepted
+     */
+    private static boolean prefersJson(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank())
+            return true;
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        return mediaTypes.isEmpty() || mediaTypes.get(0).isCompatibleWith(MediaType.APPLICATION_JSON);
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null)
+            return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].strip();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*"))
+                continue;
+            boolean refused = parts.length > 1 && parts[1].strip().matches("q=0(\\.0*)?");
+            return !refused;
+        }
+        return false;
+    }
+
+    /**
+     * The responses don't depend on the user, only on what the roles let them see
+     */
+    private static String roles() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null)
+            return "";
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .sorted()
+                .collect(Collectors.joining(","));
+    }
+
+    private static class CachedResponse {
+
+        final byte[] json;
+
+        final byte[] gzipped;
+
+        CachedResponse(byte[] json, byte[] gzipped) {
+            this.json = json;
+            this.gzipped = gzipped;
+        }
+    }
+}
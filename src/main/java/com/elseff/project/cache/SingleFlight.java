@@ -0,0 +1,156 @@
+package com.elseff.project.cache;
+
+import com.elseff.project.config.datasource.ReadYourWritesTracker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent identical loads into one: the first caller for a key runs the load, callers arriving
+ * while it runs wait for its result or exception instead of querying the database themselves.
+ * <p>
+ * A load is shared for at most {@code single-flight.timeout}. Callers still waiting then load on their own,
+ * and the next caller starts a new load for the key, so one stuck query doesn't hold everybody back.
+ * <p>
+ * Results are shared between threads and must not be modified by the callers. Call this outside of
+ * a transaction, or the waiting callers hold a connection each, which is what it should save.
+ * <p>
+ * Users whose reads are pinned to the primary after a write always load on their own: a shared load may have
+ * been read from the replica, or have started before their write committed.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class SingleFlight {
+
+    Map<List<Object>, Flight> flights = new ConcurrentHashMap<>();
+
+    Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    MeterRegistry meterRegistry;
+
+    /**
+     * null without a replica
+     */
+    ReadYourWritesTracker readYourWritesTracker;
+
+    long timeout;
+
+    public SingleFlight(MeterRegistry meterRegistry,
+                        ObjectProvider<ReadYourWritesTracker> readYourWritesTracker,
+                        @Value("${single-flight.timeout:PT2S}") Duration timeout) {
+        this.meterRegistry = meterRegistry;
+        this.readYourWritesTracker = readYourWritesTracker.getIfAvailable();
+        this.timeout = timeout.toNanos();
+    }
+
+    /**
+     * @param name   the kind of load, the name of its metrics
+     * @param key    arguments of the load, may be null
+     * @param loader the load, run by the first caller
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T load(String name, Object key, Supplier<T> loader) {
+        List<Object> flightKey = Arrays.asList(name, key);
+        Meters flightMeters = meters.computeIfAbsent(name, Meters::new);
+        if (readYourWritesTracker != null && readYourWritesTracker.isCurrentUserWithinWindow()) {
+            flightMeters.loads.increment();
+            return loader.get();
+        }
+        Flight flight = new Flight(System.nanoTime() + timeout);
+
+        while (true) {
+            Flight current = flights.putIfAbsent(flightKey, flight);
+            if (current == null)
+                return lead(flightKey, flight, loader, flightMeters);
+
+            long remaining = current.deadline - System.nanoTime();
+            if (remaining <= 0) {
+                if (flights.replace(flightKey, current, flight))
+                    return lead(flightKey, flight, loader, flightMeters);
+                continue;
+            }
+
+            flightMeters.collapsed.increment();
+            try {
+                return (T) current.result.get(remaining, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                flightMeters.timeouts.increment();
+                flightMeters.loads.increment();
+                return loader.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) e.getCause();
+                if (e.getCause() instanceof Error)
+                    throw (Error) e.getCause();
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while waiting for " + name, e);
+            }
+        }
+    }
+
+    private <T> T lead(List<Object> flightKey, Flight flight, Supplier<T> loader, Meters flightMeters) {
+        flightMeters.loads.increment();
+        try {
+            T result = loader.get();
+            flight.result.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(flightKey, flight);
+        }
+    }
+
+    private static class Flight {
+
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        final long deadline;
+
+        Flight(long deadline) {
+            this.deadline = deadline;
+        }
+    }
+
+    private class Meters {
+
+        final Counter loads;
+
+        final Counter collapsed;
+
+        final Counter timeouts;
+
+        Meters(String name) {
+            loads = Counter.builder("single-flight.loads")
+                    .description("Loads that went to the database")
+                    .tag("name", name)
+                    .register(meterRegistry);
+            collapsed = Counter.builder("single-flight.collapsed")
+                    .description("Calls that waited for the load of another caller instead of loading")
+                    .tag("name", name)
+                    .register(meterRegistry);
+            timeouts = Counter.builder("single-flight.timeouts")
+                    .description("Calls that waited too long for the load of another caller and loaded on their own")
+                    .tag("name", name)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -1,13 +1,16 @@
 package com.elseff.project.config;
 
+import com.elseff.project.web.api.modules.article.tag.TagMatchMode;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.util.List;
+import java.util.Locale;
 
 @Slf4j
 @Configuration
@@ -29,4 +32,10 @@ public class WebMvcConfig implements WebMvcConfigurer {
         });
     }
 
+    @Override
+    public void addFormatters(@NonNull FormatterRegistry registry) {
+        registry.addConverter(String.class, TagMatchMode.class,
+                mode -> TagMatchMode.valueOf(mode.strip().toUpperCase(Locale.ROOT)));
+    }
+
 }
@@ -0,0 +1,6 @@
+package com.elseff.project.config.datasource;
+
+public enum DataSourceType {
+    PRIMARY,
+    REPLICA
+}
@@ -0,0 +1,69 @@
+package com.elseff.project.config.datasource;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers users who have recently committed a mutation, so that their reads
+ * keep going to the primary until the replica has had time to catch up.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ReadYourWritesTracker {
+
+    static int SWEEP_THRESHOLD = 1024;
+
+    long windowNanos;
+
+    Map<String, Long> deadlines = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public Duration getWindow() {
+        return Duration.ofNanos(windowNanos);
+    }
+
+    public void recordWrite(String username) {
+        long now = System.nanoTime();
+        deadlines.put(username, now + windowNanos);
+
+        if (deadlines.size() > SWEEP_THRESHOLD)
+            deadlines.values().removeIf(deadline -> deadline - now < 0);
+    }
+
+    public boolean isWithinWindow(String username) {
+        Long deadline = deadlines.get(username);
+        if (deadline == null)
+            return false;
+
+        if (deadline - System.nanoTime() < 0) {
+            deadlines.remove(username, deadline);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Whether the reads of the current user are pinned to the primary, so they must not be answered with
+     * data read by someone else, which may come from the replica or predate the write of the user
+     */
+    public boolean isCurrentUserWithinWindow() {
+        String username = currentUsername();
+        return username != null && isWithinWindow(username);
+    }
+
+    static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetails))
+            return null;
+        return ((UserDetails) authentication.getPrincipal()).getUsername();
+    }
+}
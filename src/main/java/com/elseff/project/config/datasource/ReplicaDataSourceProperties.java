@@ -0,0 +1,27 @@
+package com.elseff.project.config.datasource;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@ConfigurationProperties(prefix = "spring.datasource.replica")
+public class ReplicaDataSourceProperties {
+
+    String url;
+
+    String username;
+
+    String password;
+
+    /**
+     * How long reads of a user are pinned to the primary after that user committed a mutation
+     */
+    Duration readYourWritesWindow = Duration.ofSeconds(5);
+}
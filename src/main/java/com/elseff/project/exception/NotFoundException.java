@@ -0,0 +1,15 @@
+package com.elseff.project.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Base of the exceptions for missing entities. They end up as a 404 and are thrown a lot for ids
+ * that don't exist, so they don't capture a stack trace.
+ */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public abstract class NotFoundException extends RuntimeException {
+    protected NotFoundException(String message) {
+        super(message, null, false, false);
+    }
+}
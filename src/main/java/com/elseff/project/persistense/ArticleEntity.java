@@ -1,13 +1,15 @@
 package com.elseff.project.persistense;
 
-
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import javax.persistence.*;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.Objects;
+import java.util.Set;
 
 @Entity
 @Getter
@@ -27,9 +29,19 @@ public class ArticleEntity {
     @Column(name = "title", nullable = false)
     String title;
 
+    @Basic(fetch = FetchType.LAZY)
     @Column(name = "description", nullable = false)
     String description;
 
+    @Column(name = "excerpt", nullable = false)
+    String excerpt;
+
+    @Column(name = "word_count", nullable = false)
+    Integer wordCount;
+
+    @Column(name = "reading_time", nullable = false)
+    Integer readingTime;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     Timestamp createdAt;
 
@@ -39,15 +51,46 @@ public class ArticleEntity {
     @Column(name = "updated_at")
     Timestamp updatedAt;
 
+    /**
+     * Maintained by the comment service with relative updates, never written from the entity
+     */
+    @Column(name = "comment_count", nullable = false, insertable = false, updatable = false)
+    Integer commentCount;
+
+    /**
+     * Written behind in batches by the view counter, never from the entity
+     */
+    @Column(name = "views", nullable = false, insertable = false, updatable = false)
+    Long views;
+
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "author_id", nullable = false, updatable = false)
     UserEntity author;
 
+    /**
+     * Lazy, the services load them where the articles are mapped with their tags. Loading the tags of one article
+     * loads them for all the articles of the same query, with one subselect
+     */
+    @ManyToMany(fetch = FetchType.LAZY)
+    @Fetch(FetchMode.SUBSELECT)
+    @JoinTable(name = "article_tag",
+            joinColumns = @JoinColumn(
+                    name = "article_id",
+                    referencedColumnName = "id"
+            ),
+            inverseJoinColumns = @JoinColumn(
+                    name = "tag_id",
+                    referencedColumnName = "id"
+            ))
+    Set<TagEntity> tags;
+
     @PrePersist
     void init(){
         this.createdAt = Timestamp.from(Instant.now());
         if(this.getEdited() == null)
             this.setEdited(false);
+        this.commentCount = 0;
+        this.views = 0L;
     }
 
     @Override
@@ -0,0 +1,67 @@
+package com.elseff.project.persistense;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Text helpers for articles: derived values of the description, stored next to it so that lists don't need the body,
+ * and normalization of tags.
+ */
+public final class ArticleTextUtils {
+
+    public static final int EXCERPT_LENGTH = 200;
+
+    public static final int WORDS_PER_MINUTE = 200;
+
+    private static final String ELLIPSIS = "…";
+
+    private ArticleTextUtils() {
+    }
+
+    /**
+     * First {@link #EXCERPT_LENGTH} characters of the description with collapsed whitespace,
+     * cut on a word boundary.
+     */
+    public static String excerpt(String description) {
+        String text = description.strip().replaceAll("\\s+", " ");
+        if (text.length() <= EXCERPT_LENGTH)
+            return text;
+
+        int end = text.lastIndexOf(' ', EXCERPT_LENGTH);
+        if (end <= 0)
+            end = EXCERPT_LENGTH;
+
+        return text.substring(0, end).stripTrailing() + ELLIPSIS;
+    }
+
+    public static int wordCount(String description) {
+        int count = 0;
+        boolean inWord = false;
+        for (int i = 0; i < description.length(); i++) {
+            boolean whitespace = Character.isWhitespace(description.charAt(i));
+            if (!whitespace && !inWord)
+                count++;
+            inWord = !whitespace;
+        }
+        return count;
+    }
+
+    /**
+     * Tags are stored trimmed and in lower case
+     */
+    public static Set<String> normalizeTags(Collection<String> tags) {
+        return tags.stream()
+                .map(tag -> tag.strip().toLowerCase(Locale.ROOT))
+                .filter(tag -> !tag.isEmpty())
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Reading time in minutes, at least one minute for a non-empty text
+     */
+    public static int readingTime(int wordCount) {
+        return (wordCount + WORDS_PER_MINUTE - 1) / WORDS_PER_MINUTE;
+    }
+}
@@ -0,0 +1,81 @@
+package com.elseff.project.persistense;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Comment of an article. Replies are stored with a materialized path: the zero-padded ids of all ancestors
+ * and of the comment itself, so ordering by path gives the comments of a thread in reading order.
+ * <p>
+ * The id is taken from the sequence before the insert because it is a part of the path.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "comment", schema = "public")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CommentEntity implements Persistable<Long> {
+
+    @Id
+    @Column(name = "id", nullable = false)
+    Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "article_id", nullable = false, updatable = false)
+    ArticleEntity article;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "author_id", updatable = false)
+    UserEntity author;
+
+    @Column(name = "path", nullable = false, updatable = false)
+    String path;
+
+    @Column(name = "content", nullable = false)
+    String content;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    Timestamp createdAt;
+
+    @Transient
+    @Builder.Default
+    boolean isNew = true;
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PrePersist
+    void init() {
+        this.createdAt = Timestamp.from(Instant.now());
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CommentEntity comment = (CommentEntity) o;
+        return Objects.equals(id, comment.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
@@ -0,0 +1,45 @@
+package com.elseff.project.persistense.dao;
+
+import com.elseff.project.web.api.modules.article.related.MinHash;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * MinHash signatures of articles, stored as big-endian ints
+ */
+@Repository
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ArticleMinHashRepository {
+
+    JdbcTemplate jdbcTemplate;
+
+    public void save(Long articleId, int[] signature) {
+        jdbcTemplate.update("INSERT INTO article_minhash (article_id, signature) VALUES (?, ?) " +
+                "ON CONFLICT (article_id) DO UPDATE SET signature = excluded.signature",
+                articleId, MinHash.toBytes(signature));
+    }
+
+    public void deleteById(Long articleId) {
+        jdbcTemplate.update("DELETE FROM article_minhash WHERE article_id = ?", articleId);
+    }
+
+    public Optional<int[]> findById(Long articleId) {
+        List<int[]> signatures = jdbcTemplate.query("SELECT signature FROM article_minhash WHERE article_id = ?",
+                (row, number) -> MinHash.fromBytes(row.getBytes(1)), articleId);
+        return signatures.stream().findFirst();
+    }
+
+    public void forEach(ObjLongConsumer<int[]> consumer) {
+        jdbcTemplate.query("SELECT article_id, signature FROM article_minhash",
+                (RowCallbackHandler) row -> consumer.accept(MinHash.fromBytes(row.getBytes(2)), row.getLong(1)));
+    }
+}
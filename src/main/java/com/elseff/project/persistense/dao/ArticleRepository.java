@@ -1,13 +1,49 @@
 package com.elseff.project.persistense.dao;
 
 import com.elseff.project.persistense.ArticleEntity;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ArticleRepository extends JpaRepository<ArticleEntity, Long> {
 
+    @Override
+    @EntityGraph(attributePaths = "author")
+    List<ArticleEntity> findAll();
+
+    @Query("select a from ArticleEntity a fetch all properties join fetch a.author")
+    List<ArticleEntity> findAllWithDescription();
+
+    @Override
+    @EntityGraph(attributePaths = "author")
+    Optional<ArticleEntity> findById(Long id);
+
+    @Query("select a from ArticleEntity a fetch all properties join fetch a.author where a.id = :id")
+    Optional<ArticleEntity> findWithDescriptionById(Long id);
+
+    @EntityGraph(attributePaths = "author")
     List<ArticleEntity> findAllByAuthorId(Long authorId);
+
+    @EntityGraph(attributePaths = "author")
+    List<ArticleEntity> findAllByIdIn(Collection<Long> ids);
+
+    @Query("select a from ArticleEntity a fetch all properties join fetch a.author where a.id in :ids")
+    List<ArticleEntity> findAllWithDescriptionByIdIn(Collection<Long> ids);
+
+    /**
+     * Relative update, so concurrent comments don't overwrite each other's count
+     */
+    @Modifying
+    @Query("update ArticleEntity a set a.commentCount = a.commentCount + :delta where a.id = :id")
+    int addToCommentCount(Long id, int delta);
+
+    @Query("select a from ArticleEntity a fetch all properties join fetch a.author where a.author.id = :authorId")
+    List<ArticleEntity> findAllWithDescriptionByAuthorId(Long authorId);
 }
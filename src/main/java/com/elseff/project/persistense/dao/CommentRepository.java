@@ -0,0 +1,37 @@
+package com.elseff.project.persistense.dao;
+
+import com.elseff.project.persistense.CommentEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CommentRepository extends JpaRepository<CommentEntity, Long> {
+
+    @Query(value = "SELECT nextval('comment_id_seq')", nativeQuery = true)
+    Long nextId();
+
+    Optional<CommentEntity> findByIdAndArticleId(Long id, Long articleId);
+
+    /**
+     * Comments of an article with paths strictly between the bounds, in thread order
+     */
+    @Query("select c from CommentEntity c left join fetch c.author " +
+            "where c.article.id = :articleId and c.path > :after and c.path < :before " +
+            "order by c.path")
+    List<CommentEntity> findAllByPathBetween(Long articleId, String after, String before, Pageable pageable);
+
+    @Modifying
+    @Query("delete from CommentEntity c " +
+            "where c.article.id = :articleId and c.path >= :from and c.path < :before")
+    int deleteAllByPathBetween(Long articleId, String from, String before);
+
+    @Modifying
+    @Query("delete from CommentEntity c where c.article.id = :articleId")
+    int deleteAllByArticleId(Long articleId);
+}
@@ -0,0 +1,98 @@
+package com.elseff.project.persistense.dao;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Materialized home feeds: ids of the articles pushed to every follower of their authors.
+ * <p>
+ * Feeds are written set-based with plain SQL, there is nothing to load into the persistence context.
+ */
+@Repository
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class FeedRepository {
+
+    JdbcTemplate jdbcTemplate;
+
+    /**
+     * Pushes an article into the feeds of all followers of its author, marks it as pushed
+     * and cuts these feeds down to their newest {@code maxLength} items
+     *
+     * @return number of feeds the article was pushed to
+     */
+    public int fanOut(Long articleId, Long authorId, int maxLength) {
+        jdbcTemplate.update("UPDATE article SET pushed = TRUE WHERE id = ?", articleId);
+        int feeds = jdbcTemplate.update("INSERT INTO feed_item (user_id, article_id) " +
+                "SELECT follower_id, ? FROM follow WHERE followee_id = ?", articleId, authorId);
+        // every item older than the last one kept, found with a backward scan of the primary key per feed
+        jdbcTemplate.update("DELETE FROM feed_item f USING follow fo " +
+                "WHERE fo.followee_id = ? AND f.user_id = fo.follower_id AND f.article_id < (" +
+                "SELECT article_id FROM feed_item WHERE user_id = fo.follower_id " +
+                "ORDER BY article_id DESC OFFSET ? LIMIT 1)", authorId, maxLength - 1);
+        return feeds;
+    }
+
+    /**
+     * Pushes the newest pushed articles of an author into the feed of a new follower,
+     * the others are merged in on read. The feed is cut down to its newest {@code maxLength} items.
+     */
+    public void backfill(Long userId, Long authorId, int maxLength) {
+        jdbcTemplate.update("INSERT INTO feed_item (user_id, article_id) " +
+                "SELECT ?, id FROM article WHERE author_id = ? AND pushed ORDER BY id DESC LIMIT ? " +
+                "ON CONFLICT DO NOTHING", userId, authorId, maxLength);
+        jdbcTemplate.update("DELETE FROM feed_item WHERE user_id = ? AND article_id < (" +
+                "SELECT article_id FROM feed_item WHERE user_id = ? " +
+                "ORDER BY article_id DESC OFFSET ? LIMIT 1)", userId, userId, maxLength - 1);
+    }
+
+    /**
+     * Removes the articles of an author from the feed of a former follower
+     */
+    public void removeAuthor(Long userId, Long authorId) {
+        jdbcTemplate.update("DELETE FROM feed_item f USING article a " +
+                "WHERE f.user_id = ? AND f.article_id = a.id AND a.author_id = ?", userId, authorId);
+    }
+
+    /**
+     * Cuts every feed down to its newest items. Writes already keep the feeds they touch within the limit,
+     * this sorts the whole table and is only a safety net.
+     *
+     * @return number of removed items
+     */
+    public int trim(int maxLength) {
+        return jdbcTemplate.update("DELETE FROM feed_item f USING (" +
+                "SELECT user_id, article_id, " +
+                "row_number() OVER (PARTITION BY user_id ORDER BY article_id DESC) AS position " +
+                "FROM feed_item) ranked " +
+                "WHERE ranked.position > ? AND f.user_id = ranked.user_id AND f.article_id = ranked.article_id",
+                maxLength);
+    }
+
+    /**
+     * Ids of the articles in a feed older than the given one, newest first.
+     * <p>
+     * Articles of followed authors that were not pushed are read from the article table and merged in.
+     * Whether an article was pushed is recorded when it is added, so an author crossing the threshold
+     * neither loses nor duplicates the articles already in the feeds.
+     */
+    public List<Long> findPage(Long userId, long before, int size) {
+        return jdbcTemplate.queryForList("SELECT article_id FROM (" +
+                        "(SELECT article_id FROM feed_item " +
+                        "WHERE user_id = ? AND article_id < ? ORDER BY article_id DESC LIMIT ?) " +
+                        "UNION " +
+                        "(SELECT a.id FROM follow f " +
+                        "JOIN article a ON a.author_id = f.followee_id " +
+                        "WHERE f.follower_id = ? AND NOT a.pushed AND a.id < ? ORDER BY a.id DESC LIMIT ?)" +
+                        ") page ORDER BY article_id DESC LIMIT ?",
+                Long.class,
+                userId, before, size,
+                userId, before, size,
+                size);
+    }
+}
@@ -0,0 +1,64 @@
+package com.elseff.project.persistense.dao;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Follows between users.
+ * <p>
+ * Written with plain SQL: the follower count is kept on {@code _user} next to the cached users,
+ * and a bulk statement run through Hibernate would evict them from the second-level cache.
+ */
+@Repository
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class FollowRepository {
+
+    JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return false if the user already follows the followee
+     */
+    public boolean follow(Long followerId, Long followeeId) {
+        int inserted = jdbcTemplate.update(
+                "INSERT INTO follow (follower_id, followee_id) VALUES (?, ?) ON CONFLICT DO NOTHING",
+                followerId, followeeId);
+        if (inserted == 0)
+            return false;
+
+        jdbcTemplate.update("UPDATE _user SET follower_count = follower_count + 1 WHERE id = ?", followeeId);
+        return true;
+    }
+
+    /**
+     * @return false if the user didn't follow the followee
+     */
+    public boolean unfollow(Long followerId, Long followeeId) {
+        int deleted = jdbcTemplate.update(
+                "DELETE FROM follow WHERE follower_id = ? AND followee_id = ?",
+                followerId, followeeId);
+        if (deleted == 0)
+            return false;
+
+        jdbcTemplate.update("UPDATE _user SET follower_count = follower_count - 1 WHERE id = ?", followeeId);
+        return true;
+    }
+
+    /**
+     * Removes all follows of a user that is going to be deleted, keeping the follower counts of the followees right
+     */
+    public void unfollowAll(Long followerId) {
+        jdbcTemplate.update("UPDATE _user SET follower_count = follower_count - 1 " +
+                "WHERE id IN (SELECT followee_id FROM follow WHERE follower_id = ?)", followerId);
+        jdbcTemplate.update("DELETE FROM follow WHERE follower_id = ?", followerId);
+    }
+
+    public int countFollowers(Long userId) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT follower_count FROM _user WHERE id = ?", Integer.class, userId);
+        return count == null ? 0 : count;
+    }
+}
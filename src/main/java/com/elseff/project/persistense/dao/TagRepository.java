@@ -0,0 +1,14 @@
+package com.elseff.project.persistense.dao;
+
+import com.elseff.project.persistense.TagEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Set;
+
+@Repository
+public interface TagRepository extends JpaRepository<TagEntity, Long>, TagRepositoryCustom {
+
+    Set<TagEntity> findAllByNameIn(Collection<String> names);
+}
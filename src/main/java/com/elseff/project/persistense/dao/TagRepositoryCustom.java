@@ -0,0 +1,6 @@
+package com.elseff.project.persistense.dao;
+
+public interface TagRepositoryCustom {
+
+    void insertIfAbsent(String name);
+}
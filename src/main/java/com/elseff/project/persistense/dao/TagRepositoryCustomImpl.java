@@ -0,0 +1,22 @@
+package com.elseff.project.persistense.dao;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Written with plain SQL: a native statement run through Hibernate doesn't know which tables it touches
+ * and would evict every second-level cache region, the cached users and roles included.
+ */
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TagRepositoryCustomImpl implements TagRepositoryCustom {
+
+    JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertIfAbsent(String name) {
+        jdbcTemplate.update("INSERT INTO tag (name) VALUES (?) ON CONFLICT (name) DO NOTHING", name);
+    }
+}
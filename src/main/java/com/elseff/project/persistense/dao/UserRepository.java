@@ -2,16 +2,36 @@ package com.elseff.project.persistense.dao;
 
 import com.elseff.project.persistense.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH;
+
 @Repository
 public interface UserRepository extends JpaRepository<UserEntity, Long> {
 
+    @Override
+    @Query("select distinct u from UserEntity u left join fetch u.articles")
+    @QueryHints(@QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    List<UserEntity> findAll();
+
+    @Query("select distinct u from UserEntity u left join fetch u.articles where u.id in :ids")
+    @QueryHints(@QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    List<UserEntity> findAllByIdIn(Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     UserEntity getByEmail(String email);
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     boolean existsByEmail(String email);
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<UserEntity> findByEmail(String email);
 }
@@ -0,0 +1,159 @@
+package com.elseff.project.web.api.modules.article.autocomplete;
+
+import com.elseff.project.cache.CacheInvalidationEvent;
+import com.elseff.project.web.api.modules.article.dto.ArticleDto;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeEvent;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Suggests article titles by prefix, newest articles first.
+ * <p>
+ * Titles are normalized (accents and case dropped, punctuation and whitespace runs turned into a single space)
+ * and kept in an immutable {@link TitleTrie}. The trie is built from the {@code article} table at startup
+ * and replaced on every committed change, so lookups never lock or touch the database.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class TitleAutocomplete {
+
+    public static final int MAX_SUGGESTIONS = TitleTrie.TOP;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Original titles, for the suggestions and for finding the key of a title that changed
+     */
+    volatile Map<Long, String> titles = new ConcurrentHashMap<>();
+
+    volatile TitleTrie trie = TitleTrie.EMPTY;
+
+    final Object statsLock = new Object();
+
+    /**
+     * Trie the stats have been computed for
+     */
+    TitleTrie measured;
+
+    TitleTrie.Stats stats;
+
+    public TitleAutocomplete(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+
+        Gauge.builder("articles.autocomplete.titles", this, autocomplete -> autocomplete.trie.size())
+                .description("Titles in the autocomplete index")
+                .register(meterRegistry);
+        Gauge.builder("articles.autocomplete.nodes", this, autocomplete -> autocomplete.stats().getNodes())
+                .description("Nodes of the autocomplete trie")
+                .register(meterRegistry);
+        Gauge.builder("articles.autocomplete.memory", this, autocomplete -> autocomplete.stats().getBytes())
+                .description("Estimated heap taken by the autocomplete trie")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Builds the index aside and swaps it in, so a reload doesn't leave readers with a partial index
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        Map<Long, String> loadedTitles = new ConcurrentHashMap<>();
+        TitleTrie[] loadedTrie = {TitleTrie.EMPTY};
+        jdbcTemplate.query("SELECT id, title FROM article", resultSet -> {
+            String title = resultSet.getString("title");
+            loadedTitles.put(resultSet.getLong("id"), title);
+            loadedTrie[0] = loadedTrie[0].put(normalize(title), resultSet.getLong("id"));
+        });
+        titles = loadedTitles;
+        trie = loadedTrie[0];
+        log.info("autocomplete index has been built for {} titles", trie.size());
+    }
+
+    /**
+     * Articles whose normalized title starts with the normalized prefix, with id and title only
+     */
+    public List<ArticleDto> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty())
+            return List.of();
+        // "java " should not suggest "javascript"
+        if (SEPARATORS.matcher(prefix.substring(prefix.length() - 1)).matches())
+            key += " ";
+
+        long[] ids = trie.find(key, Math.min(limit, MAX_SUGGESTIONS));
+        List<ArticleDto> suggestions = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            String title = titles.get(id);
+            if (title != null)
+                suggestions.add(ArticleDto.builder().id(id).title(title).build());
+        }
+        return suggestions;
+    }
+
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (event.isAll())
+            load();
+        else if (event.getArticleChange() != null)
+            onArticleChange(event.getArticleChange());
+    }
+
+    @TransactionalEventListener
+    public synchronized void onArticleChange(ArticleChangeEvent event) {
+        Long id = event.getArticleId();
+        String previous = titles.get(id);
+        if (event.getType() != ArticleChangeType.DELETED && event.getTitle().equals(previous))
+            return;
+
+        if (previous != null) {
+            trie = trie.remove(normalize(previous), id);
+            titles.remove(id);
+        }
+        if (event.getType() != ArticleChangeType.DELETED)
+            put(id, event.getTitle());
+    }
+
+    private void put(long id, String title) {
+        titles.put(id, title);
+        trie = trie.put(normalize(title), id);
+    }
+
+    private TitleTrie.Stats stats() {
+        synchronized (statsLock) {
+            TitleTrie current = trie;
+            if (current != measured) {
+                stats = current.stats();
+                measured = current;
+            }
+            return stats;
+        }
+    }
+
+    static String normalize(String title) {
+        String decomposed = Normalizer.normalize(title, Normalizer.Form.NFKD);
+        String withoutMarks = MARKS.matcher(decomposed).replaceAll("");
+        return SEPARATORS.matcher(withoutMarks.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+    }
+}
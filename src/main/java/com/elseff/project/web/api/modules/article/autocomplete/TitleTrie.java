@@ -0,0 +1,347 @@
+package com.elseff.project.web.api.modules.article.autocomplete;
+
+import java.util.Arrays;
+
+/**
+ * Immutable radix trie from normalized titles to article ids.
+ * <p>
+ * Every node keeps the {@link #TOP} greatest ids of its subtree, so a lookup only walks down the prefix and never
+ * visits the subtree below it. {@link #put} and {@link #remove} copy the nodes on the path to the changed key and
+ * share the rest with the original trie, which stays valid for readers holding it.
+ */
+final class TitleTrie {
+
+    /**
+     * Ids kept by every node, the most a lookup can return
+     */
+    static final int TOP = 10;
+
+    private static final long[] NO_IDS = new long[0];
+
+    private static final String[] NO_LABELS = new String[0];
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    static final TitleTrie EMPTY = new TitleTrie(new Node(NO_LABELS, NO_CHILDREN, NO_IDS));
+
+    private final Node root;
+
+    private TitleTrie(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Ids of titles starting with the prefix, greatest first
+     */
+    long[] find(String prefix, int limit) {
+        Node node = root;
+        int offset = 0;
+        while (offset < prefix.length()) {
+            int edge = node.edge(prefix.charAt(offset));
+            if (edge < 0)
+                return NO_IDS;
+            String label = node.labels[edge];
+            int common = commonPrefix(label, prefix, offset);
+            if (offset + common == prefix.length())
+                return head(node.children[edge].top, limit);
+            if (common < label.length())
+                return NO_IDS;
+            node = node.children[edge];
+            offset += common;
+        }
+        return head(node.top, limit);
+    }
+
+    TitleTrie put(String key, long id) {
+        return new TitleTrie(put(root, key, 0, id));
+    }
+
+    TitleTrie remove(String key, long id) {
+        Node newRoot = remove(root, key, 0, id);
+        if (newRoot == root)
+            return this;
+        return new TitleTrie(newRoot == null ? EMPTY.root : newRoot);
+    }
+
+    int size() {
+        return root.size;
+    }
+
+    /**
+     * Walks the whole trie, meant for metrics that are not read on every request
+     */
+    Stats stats() {
+        Stats stats = new Stats();
+        stats.add(root);
+        return stats;
+    }
+
+    private static Node put(Node node, String key, int offset, long id) {
+        if (offset == key.length())
+            return node.withIds(insert(node.ids, id));
+
+        int edge = node.edge(key.charAt(offset));
+        if (edge < 0) {
+            Node leaf = new Node(NO_LABELS, NO_CHILDREN, new long[]{id});
+            return node.withEdge(key.substring(offset), leaf);
+        }
+        String label = node.labels[edge];
+        int common = commonPrefix(label, key, offset);
+        if (common == label.length())
+            return node.withChild(edge, label, put(node.children[edge], key, offset + common, id));
+
+        Node split = new Node(new String[]{label.substring(common)}, new Node[]{node.children[edge]}, NO_IDS);
+        return node.withChild(edge, label.substring(0, common), put(split, key, offset + common, id));
+    }
+
+    /**
+     * @return the same node if the id is not under the key, null if the node becomes empty
+     */
+    private static Node remove(Node node, String key, int offset, long id) {
+        if (offset == key.length()) {
+            int index = indexOf(node.ids, id);
+            if (index < 0)
+                return node;
+            return compact(node.withIds(delete(node.ids, index)));
+        }
+
+        int edge = node.edge(key.charAt(offset));
+        if (edge < 0)
+            return node;
+        String label = node.labels[edge];
+        int common = commonPrefix(label, key, offset);
+        if (common < label.length())
+            return node;
+
+        Node child = node.children[edge];
+        Node newChild = remove(child, key, offset + common, id);
+        if (newChild == child)
+            return node;
+        if (newChild == null)
+            return compact(node.withoutEdge(edge));
+        if (newChild.ids.length == 0 && newChild.labels.length == 1)
+            return node.withChild(edge, label + newChild.labels[0], newChild.children[0]);
+        return node.withChild(edge, label, newChild);
+    }
+
+    private static Node compact(Node node) {
+        return node.ids.length == 0 && node.labels.length == 0 ? null : node;
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int common = 0;
+        while (common < max && label.charAt(common) == key.charAt(offset + common))
+            common++;
+        return common;
+    }
+
+    private static long[] head(long[] ids, int limit) {
+        return ids.length <= limit ? ids : Arrays.copyOf(ids, limit);
+    }
+
+    /**
+     * @param ids sorted ascending
+     */
+    private static long[] insert(long[] ids, long id) {
+        int index = Arrays.binarySearch(ids, id);
+        if (index >= 0)
+            return ids;
+        index = -index - 1;
+        long[] inserted = new long[ids.length + 1];
+        System.arraycopy(ids, 0, inserted, 0, index);
+        inserted[index] = id;
+        System.arraycopy(ids, index, inserted, index + 1, ids.length - index);
+        return inserted;
+    }
+
+    private static int indexOf(long[] ids, long id) {
+        return Arrays.binarySearch(ids, id);
+    }
+
+    private static long[] delete(long[] ids, int index) {
+        if (ids.length == 1)
+            return NO_IDS;
+        long[] deleted = new long[ids.length - 1];
+        System.arraycopy(ids, 0, deleted, 0, index);
+        System.arraycopy(ids, index + 1, deleted, index, deleted.length - index);
+        return deleted;
+    }
+
+    /**
+     * Nodes are never changed once built. Edges are sorted by their first character.
+     */
+    private static final class Node {
+
+        final String[] labels;
+
+        final Node[] children;
+
+        /**
+         * Ids of the titles ending at this node, ascending
+         */
+        final long[] ids;
+
+        /**
+         * Greatest ids of the subtree, descending, at most {@link #TOP}
+         */
+        final long[] top;
+
+        final int size;
+
+        Node(String[] labels, Node[] children, long[] ids) {
+            this.labels = labels;
+            this.children = children;
+            this.ids = ids;
+
+            int size = ids.length;
+            for (Node child : children)
+                size += child.size;
+            this.size = size;
+            this.top = top(children, ids);
+        }
+
+        int edge(char first) {
+            int low = 0;
+            int high = labels.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char c = labels[middle].charAt(0);
+                if (c < first)
+                    low = middle + 1;
+                else if (c > first)
+                    high = middle - 1;
+                else
+                    return middle;
+            }
+            return -(low + 1);
+        }
+
+        Node withIds(long[] newIds) {
+            return new Node(labels, children, newIds);
+        }
+
+        Node withChild(int edge, String label, Node child) {
+            String[] newLabels = labels.clone();
+            Node[] newChildren = children.clone();
+            newLabels[edge] = label;
+            newChildren[edge] = child;
+            return new Node(newLabels, newChildren, ids);
+        }
+
+        Node withEdge(String label, Node child) {
+            int index = -edge(label.charAt(0)) - 1;
+            String[] newLabels = new String[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newLabels[index] = label;
+            newChildren[index] = child;
+            System.arraycopy(labels, index, newLabels, index + 1, labels.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            return new Node(newLabels, newChildren, ids);
+        }
+
+        Node withoutEdge(int edge) {
+            if (labels.length == 1)
+                return new Node(NO_LABELS, NO_CHILDREN, ids);
+            String[] newLabels = new String[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, edge);
+            System.arraycopy(children, 0, newChildren, 0, edge);
+            System.arraycopy(labels, edge + 1, newLabels, edge, newLabels.length - edge);
+            System.arraycopy(children, edge + 1, newChildren, edge, newChildren.length - edge);
+            return new Node(newLabels, newChildren, ids);
+        }
+
+        /**
+         * Merges the descending tops of the children with the own ids, keeping the greatest {@link #TOP}
+         */
+        private static long[] top(Node[] children, long[] ids) {
+            if (children.length == 0 && ids.length <= TOP)
+                return reversed(ids);
+            if (children.length == 1 && ids.length == 0)
+                return children[0].top;
+
+            long[] top = new long[TOP];
+            int size = 0;
+            int[] positions = new int[children.length];
+            int own = ids.length - 1;
+            while (size < TOP) {
+                long best = Long.MIN_VALUE;
+                int bestChild = -1;
+                for (int i = 0; i < children.length; i++) {
+                    long[] childTop = children[i].top;
+                    if (positions[i] < childTop.length && (bestChild < 0 || childTop[positions[i]] > best)) {
+                        best = childTop[positions[i]];
+                        bestChild = i;
+                    }
+                }
+                if (own >= 0 && (bestChild < 0 || ids[own] > best)) {
+                    top[size++] = ids[own--];
+                } else if (bestChild >= 0) {
+                    top[size++] = best;
+                    positions[bestChild]++;
+                } else {
+                    break;
+                }
+            }
+            return size == TOP ? top : Arrays.copyOf(top, size);
+        }
+
+        private static long[] reversed(long[] ids) {
+            long[] reversed = new long[ids.length];
+            for (int i = 0; i < ids.length; i++)
+                reversed[i] = ids[ids.length - 1 - i];
+            return reversed;
+        }
+    }
+
+    /**
+     * Number of nodes and an estimate of the heap they take, assuming compressed oops and Latin-1 labels
+     */
+    static final class Stats {
+
+        private static final int OBJECT_HEADER = 12;
+
+        private static final int ARRAY_HEADER = 16;
+
+        private static final int REFERENCE = 4;
+
+        private int nodes;
+
+        private long bytes;
+
+        int getNodes() {
+            return nodes;
+        }
+
+        long getBytes() {
+            return bytes;
+        }
+
+        private void add(Node node) {
+            nodes++;
+            bytes += align(OBJECT_HEADER + 4 * REFERENCE + Integer.BYTES);
+            bytes += array(node.labels.length, REFERENCE) + array(node.children.length, REFERENCE);
+            bytes += array(node.ids.length, Long.BYTES);
+            if (node.children.length != 1 || node.ids.length != 0)
+                bytes += array(node.top.length, Long.BYTES);
+            for (int i = 0; i < node.labels.length; i++) {
+                bytes += align(OBJECT_HEADER + REFERENCE + Integer.BYTES + 2) + align(ARRAY_HEADER + node.labels[i].length());
+                add(node.children[i]);
+            }
+        }
+
+        /**
+         * Empty arrays are shared by all nodes
+         */
+        private static long array(int length, int elementSize) {
+            return length == 0 ? 0 : align(ARRAY_HEADER + (long) length * elementSize);
+        }
+
+        private static long align(long size) {
+            return (size + 7) & ~7L;
+        }
+    }
+}
@@ -1,11 +1,31 @@
 package com.elseff.project.web.api.modules.article.controller;
 
+import com.elseff.project.cache.CachedEntity;
+import com.elseff.project.cache.NegativeCache;
+import com.elseff.project.cache.ResponseCache;
+import com.elseff.project.cache.SingleFlight;
 import com.elseff.project.persistense.ArticleEntity;
+import com.elseff.project.web.api.modules.article.autocomplete.TitleAutocomplete;
+import com.elseff.project.web.api.modules.article.dto.ArticleBatchDto;
+import com.elseff.project.web.api.modules.article.dto.ArticleChangeDto;
+import com.elseff.project.web.api.modules.article.dto.ArticleChangesDto;
 import com.elseff.project.web.api.modules.article.dto.ArticleCreationRequest;
 import com.elseff.project.web.api.modules.article.dto.ArticleDto;
 import com.elseff.project.web.api.modules.article.dto.ArticleUpdateRequest;
+import com.elseff.project.web.api.modules.article.dto.NormalizedArticlesDto;
 import com.elseff.project.web.api.modules.article.dto.mapper.ArticleDtoMapper;
+import com.elseff.project.web.api.modules.article.exception.ArticleNotFoundException;
+import com.elseff.project.web.api.modules.article.listing.ArticleListStreamer;
+import com.elseff.project.web.api.modules.article.markdown.MarkdownRenderer;
+import com.elseff.project.web.api.modules.article.readmodel.ArticleReadModel;
+import com.elseff.project.web.api.modules.article.readmodel.ArticleView;
+import com.elseff.project.web.api.modules.article.related.RelatedArticles;
 import com.elseff.project.web.api.modules.article.service.ArticleService;
+import com.elseff.project.web.api.modules.article.stream.ArticleChangeStream;
+import com.elseff.project.web.api.modules.article.sync.ArticleChangeLog;
+import com.elseff.project.web.api.modules.article.tag.TagMatchMode;
+import com.elseff.project.web.api.modules.article.trending.TrendingArticles;
+import com.elseff.project.web.api.modules.article.view.ArticleViewCounter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -16,12 +36,27 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Validated
@@ -32,10 +67,27 @@ import java.util.List;
 @Tag(name = "Article controller", description = "Article management")
 public class ArticleController {
 
+    private static final int RELATED_ARTICLES = 5;
+
+    private static final int MAX_BATCH = 100;
+
     ArticleService articleService;
     ArticleDtoMapper articleDtoMapper;
+    MarkdownRenderer markdownRenderer;
+    ArticleViewCounter articleViewCounter;
+    TrendingArticles trendingArticles;
+    RelatedArticles relatedArticles;
+    TitleAutocomplete titleAutocomplete;
+    ArticleChangeStream articleChangeStream;
+    ArticleChangeLog articleChangeLog;
+    ObjectProvider<ArticleReadModel> articleReadModel;
+    SingleFlight singleFlight;
+    NegativeCache negativeCache;
+    ArticleListStreamer articleListStreamer;
+    ResponseCache responseCache;
 
     @Operation(summary = "Get all articles",
+            description = "Articles are returned with an excerpt instead of the description unless full is set",
             responses = {
                     @ApiResponse(
                             responseCode = "200",
@@ -44,17 +96,224 @@ public class ArticleController {
             }
     )
     @GetMapping
+    public ResponseEntity<?> findAll(@Parameter(description = "author id")
+                                     @RequestParam(required = false, name = "authorId") Long authorId,
+                                     @Parameter(description = "return the full description")
+                                     @RequestParam(required = false, name = "full") boolean full) {
+        return responseCache.load("articles.findAll", Arrays.asList(authorId, full), () -> findAllDtos(authorId, full));
+    }
+
+    @Operation(summary = "Get all articles, normalized",
+            description = "Requested with normalized=true. Articles carry the authorId, every author is returned once " +
+                    "next to them. Articles are returned with an excerpt instead of the description unless full is set",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            content = @Content(schema = @Schema(implementation = NormalizedArticlesDto.class))
+                    ),
+            }
+    )
+    @GetMapping(params = {"normalized=true", "!tags", "!ids"})
     @ResponseStatus(HttpStatus.OK)
-    public List<ArticleDto> findAll(@Parameter(description = "author id")
-                                    @RequestParam(required = false, name = "authorId") Long authorId) {
-        List<ArticleEntity> articles = authorId == null
-                ? articleService.findAll()
-                : articleService.findAllByAuthorId(authorId);
+    public NormalizedArticlesDto findAllNormalized(@Parameter(description = "author id")
+                                                   @RequestParam(required = false, name = "authorId") Long authorId,
+                                                   @Parameter(description = "return the full description")
+                                                   @RequestParam(required = false, name = "full") boolean full) {
+        return articleDtoMapper.normalize(findAllDtos(authorId, full));
+    }
+
+    @Operation(summary = "Get all articles, streamed",
+            description = "Requested with stream=true. The same list, by id, written to the response while it is " +
+                    "read from the database, for lists too large to be built in memory first. " +
+                    "Articles are returned with an excerpt instead of the description unless full is set",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            content = @Content(schema = @Schema(implementation = ArticleDto.class))
+                    ),
+            }
+    )
+    @GetMapping(params = {"stream=true", "!tags", "!ids", "!normalized"})
+    public ResponseEntity<StreamingResponseBody> findAllStreamed(@Parameter(description = "author id")
+                                                                 @RequestParam(required = false, name = "authorId") Long authorId,
+                                                                 @Parameter(description = "return the full description")
+                                                                 @RequestParam(required = false, name = "full") boolean full) {
+        ArticleReadModel readModel = loadedReadModel();
+        if (readModel != null)
+            return articleListStreamer.stream(authorId == null
+                    ? readModel.findAll()
+                    : readModel.findAllByAuthorId(authorId), full);
+
+        return articleListStreamer.stream(authorId, full);
+    }
+
+    @Operation(summary = "Get articles by ids",
+            description = "Articles in the order of the given ids, duplicates once, along with the ids that were not found. " +
+                    "Up to " + MAX_BATCH + " ids. Articles are returned with an excerpt instead of the description unless full is set",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            content = @Content(schema = @Schema(implementation = ArticleBatchDto.class))
+                    ),
+                    @ApiResponse(responseCode = "400", description = "No ids or too many ids", content = @Content),
+            }
+    )
+    @GetMapping(params = {"ids", "!tags"})
+    @ResponseStatus(HttpStatus.OK)
+    public ArticleBatchDto findAllByIds(@Parameter(description = "comma separated ids", required = true)
+                                        @RequestParam(name = "ids") @NotEmpty @Size(max = MAX_BATCH) List<Long> ids,
+                                        @Parameter(description = "return the full description")
+                                        @RequestParam(required = false, name = "full") boolean full) {
+        List<Long> distinctIds = List.copyOf(new LinkedHashSet<>(ids));
+        List<ArticleDto> articles;
+        ArticleReadModel readModel = loadedReadModel();
+        if (readModel != null) {
+            List<ArticleView> views = readModel.findAllByIdIn(distinctIds);
+            articles = full
+                    ? articleDtoMapper.mapListArticleViewToDto(views)
+                    : articleDtoMapper.mapListArticleViewToPreviewDto(views);
+        } else {
+            articles = full
+                    ? articleDtoMapper.mapListArticleEntityToDto(articleService.findAllWithDescriptionByIdIn(distinctIds))
+                    : articleDtoMapper.mapListArticleEntityToPreviewDto(articleService.findAllByIdIn(distinctIds));
+        }
+
+        Set<Long> found = articles.stream().map(ArticleDto::getId).collect(Collectors.toSet());
+        return ArticleBatchDto.builder()
+                .articles(articles)
+                .missing(distinctIds.stream().filter(id -> !found.contains(id)).collect(Collectors.toList()))
+                .build();
+    }
+
+    @Operation(summary = "Get article changes",
+            description = "Articles created or updated and tombstones of articles deleted after the cursor, " +
+                    "with the cursor for the next request. Without a cursor, or when the cursor is older than " +
+                    "the retained changes, resyncRequired is set: reload all articles, then sync from the returned cursor. " +
+                    "A change of a profile returns all the articles of the author as updated. " +
+                    "Articles are returned with an excerpt instead of the description unless full is set",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            content = @Content(schema = @Schema(implementation = ArticleChangesDto.class))
+                    ),
+            }
+    )
+    @GetMapping("/changes")
+    @ResponseStatus(HttpStatus.OK)
+    public ArticleChangesDto findChanges(@Parameter(description = "cursor returned by the previous request")
+                                         @RequestParam(required = false, name = "since") @Min(0) Long since,
+                                         @Parameter(description = "maximum number of changes")
+                                         @RequestParam(defaultValue = "500", name = "limit") @Min(1) @Max(1000) int limit,
+                                         @Parameter(description = "return the full description")
+                                         @RequestParam(required = false, name = "full") boolean full) {
+        return articleChangeLog.findChanges(since, limit, full);
+    }
 
-        return articleDtoMapper.mapListArticleEntityToDto(articles);
+    @Operation(summary = "Get articles by tags",
+            description = "Articles having all (mode=all) or any (mode=any) of the given tags, newest first. " +
+                    "Articles are returned with an excerpt instead of the description",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            content = @Content(schema = @Schema(implementation = ArticleDto.class))
+                    ),
+            }
+    )
+    @GetMapping(params = {"tags", "!ids"})
+    public ResponseEntity<?> findAllByTags(@Parameter(description = "comma separated tags", required = true)
+                                           @RequestParam(name = "tags") Set<String> tags,
+                                           @Parameter(description = "all or any")
+                                           @RequestParam(defaultValue = "all", name = "mode") TagMatchMode mode,
+                                           @Parameter(description = "page number, starting from 0")
+                                           @RequestParam(defaultValue = "0", name = "page") @Min(0) int page,
+                                           @Parameter(description = "page size")
+                                           @RequestParam(defaultValue = "20", name = "size") @Min(1) @Max(100) int size) {
+        return responseCache.load("articles.findAllByTags", Arrays.asList(new TreeSet<>(tags), mode, page, size),
+                () -> findAllByTagsDtos(tags, mode, page, size));
+    }
+
+    @Operation(summary = "Get articles by tags, normalized",
+            description = "Requested with normalized=true. Articles having all (mode=all) or any (mode=any) " +
+                    "of the given tags, newest first, with the authorId. Every author is returned once next to them",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            content = @Content(schema = @Schema(implementation = NormalizedArticlesDto.class))
+                    ),
+            }
+    )
+    @GetMapping(params = {"tags", "!ids", "normalized=true"})
+    @ResponseStatus(HttpStatus.OK)
+    public NormalizedArticlesDto findAllByTagsNormalized(@Parameter(description = "comma separated tags", required = true)
+                                                         @RequestParam(name = "tags") Set<String> tags,
+                                                         @Parameter(description = "all or any")
+                                                         @RequestParam(defaultValue = "all", name = "mode") TagMatchMode mode,
+                                                         @Parameter(description = "page number, starting from 0")
+                                                         @RequestParam(defaultValue = "0", name = "page") @Min(0) int page,
+                                                         @Parameter(description = "page size")
+                                                         @RequestParam(defaultValue = "20", name = "size") @Min(1) @Max(100) int size) {
+        return articleDtoMapper.normalize(findAllByTagsDtos(tags, mode, page, size));
+    }
+
+    @Operation(summary = "Get trending articles",
+            description = "Articles read the most lately, best first. Recent reads weigh more. " +
+                    "The list is refreshed every few seconds",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            content = @Content(schema = @Schema(implementation = ArticleDto.class))
+                    ),
+            }
+    )
+    @GetMapping("/trending")
+    @ResponseStatus(HttpStatus.OK)
+    public List<ArticleDto> findTrending() {
+        return trendingArticles.getSnapshot();
+    }
+
+    @Operation(summary = "Stream article changes",
+            description = "Server-sent events for articles created, updated or deleted after the subscription, " +
+                    "named created, updated and deleted. A client reconnecting with Last-Event-ID gets the changes " +
+                    "it missed, or a reset event if they are no longer known and the articles have to be reloaded. " +
+                    "Clients that don't keep up are disconnected and should reconnect the same way",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                                    schema = @Schema(implementation = ArticleChangeDto.class))
+                    ),
+            }
+    )
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@Parameter(description = "only changes of articles by this author")
+                             @RequestParam(required = false, name = "authorId") Long authorId,
+                             @Parameter(description = "id of the last event received before reconnecting")
+                             @RequestHeader(required = false, name = "Last-Event-ID") String lastEventId) {
+        return articleChangeStream.subscribe(authorId, lastEventId);
+    }
+
+    @Operation(summary = "Suggest article titles",
+            description = "Articles whose title starts with the given prefix, newest first, with id and title only. " +
+                    "Case, accents and punctuation are ignored",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            content = @Content(schema = @Schema(implementation = ArticleDto.class))
+                    ),
+            }
+    )
+    @GetMapping("/autocomplete")
+    @ResponseStatus(HttpStatus.OK)
+    public List<ArticleDto> autocomplete(@Parameter(description = "beginning of the title", required = true)
+                                         @RequestParam(name = "q") @NotBlank @Size(max = 120) String prefix,
+                                         @Parameter(description = "maximum number of suggestions")
+                                         @RequestParam(defaultValue = "" + TitleAutocomplete.MAX_SUGGESTIONS, name = "limit")
+                                         @Min(1) @Max(TitleAutocomplete.MAX_SUGGESTIONS) int limit) {
+        return titleAutocomplete.suggest(prefix, limit);
     }
 
     @Operation(summary = "Get specific article by id",
+            description = "The article comes with up to " + RELATED_ARTICLES + " related articles, similar by title and description",
             responses = {
                     @ApiResponse(
                             responseCode = "200",
@@ -64,12 +323,16 @@ public class ArticleController {
             }
     )
     @GetMapping("/{id}")
-    @ResponseStatus(HttpStatus.OK)
-    public ArticleDto findById(@Parameter(description = "Article id", required = true)
-                               @PathVariable Long id) {
-        ArticleEntity article = articleService.findById(id);
+    public ResponseEntity<?> findById(@Parameter(description = "Article id", required = true)
+                                      @PathVariable Long id,
+                                      @Parameter(description = "add the description rendered from Markdown to HTML")
+                                      @RequestParam(required = false, name = "html") boolean html) {
+        ResponseEntity<?> response = responseCache.load("articles.findById", Arrays.asList(id, html),
+                () -> findArticleDto(id, html));
+        articleViewCounter.increment(id);
+        trendingArticles.recordRead(id);
 
-        return articleDtoMapper.mapArticleEntityToDto(article);
+        return response;
     }
 
     @Operation(summary = "Add new article",
@@ -127,4 +390,63 @@ public class ArticleController {
 
         return articleDtoMapper.mapArticleEntityToDto(article);
     }
+
+    private ArticleDto findArticleDto(Long id, boolean html) {
+        ArticleReadModel readModel = loadedReadModel();
+        ArticleDto articleDto = readModel == null
+                ? articleDtoMapper.mapArticleEntityToDto(negativeCache.load(CachedEntity.ARTICLE, id,
+                () -> singleFlight.load("articles.findById", id, () -> articleService.findById(id)),
+                () -> new ArticleNotFoundException(id)))
+                : articleDtoMapper.mapArticleViewToDto(readModel.findById(id));
+
+        if (html)
+            articleDto.setDescriptionHtml(markdownRenderer.render(articleDto.getDescription().toString()));
+
+        List<Long> relatedIds = relatedArticles.findRelated(id, RELATED_ARTICLES);
+        articleDto.setRelated(readModel == null
+                ? articleDtoMapper.mapListArticleEntityToSimpleDto(articleService.findAllByIdIn(relatedIds))
+                : articleDtoMapper.mapListArticleViewToSimpleDto(readModel.findAllByIdIn(relatedIds)));
+
+        return articleDto;
+    }
+
+    private List<ArticleDto> findAllByTagsDtos(Set<String> tags, TagMatchMode mode, int page, int size) {
+        List<ArticleEntity> articles = articleService.findAllByTags(tags, mode, page, size);
+
+        return articleDtoMapper.mapListArticleEntityToPreviewDto(articles);
+    }
+
+    private List<ArticleDto> findAllDtos(Long authorId, boolean full) {
+        ArticleReadModel readModel = loadedReadModel();
+        if (readModel != null) {
+            List<ArticleView> articles = authorId == null
+                    ? readModel.findAll()
+                    : readModel.findAllByAuthorId(authorId);
+
+            return full
+                    ? articleDtoMapper.mapListArticleViewToDto(articles)
+                    : articleDtoMapper.mapListArticleViewToPreviewDto(articles);
+        }
+        if (full) {
+            List<ArticleEntity> articles = authorId == null
+                    ? singleFlight.load("articles.findAllWithDescription", null, articleService::findAllWithDescription)
+                    : singleFlight.load("articles.findAllWithDescriptionByAuthorId", authorId,
+                    () -> articleService.findAllWithDescriptionByAuthorId(authorId));
+
+            return articleDtoMapper.mapListArticleEntityToDto(articles);
+        }
+        List<ArticleEntity> articles = authorId == null
+                ? singleFlight.load("articles.findAll", null, articleService::findAll)
+                : singleFlight.load("articles.findAllByAuthorId", authorId, () -> articleService.findAllByAuthorId(authorId));
+
+        return articleDtoMapper.mapListArticleEntityToPreviewDto(articles);
+    }
+
+    /**
+     * The read model if it is enabled and has been loaded, null if articles are to be read from the database
+     */
+    private ArticleReadModel loadedReadModel() {
+        ArticleReadModel readModel = articleReadModel.getIfAvailable();
+        return readModel != null && readModel.isLoaded() ? readModel : null;
+    }
 }
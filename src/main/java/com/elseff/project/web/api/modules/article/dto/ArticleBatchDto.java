@@ -0,0 +1,22 @@
+package com.elseff.project.web.api.modules.article.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ArticleBatchDto {
+
+    @Schema(description = "found articles in the requested order")
+    List<ArticleDto> articles;
+
+    @Schema(description = "requested ids without an article")
+    List<Long> missing;
+}
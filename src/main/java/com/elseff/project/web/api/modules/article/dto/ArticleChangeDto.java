@@ -0,0 +1,28 @@
+package com.elseff.project.web.api.modules.article.dto;
+
+import com.elseff.project.web.api.modules.article.event.ArticleChangeType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.Set;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ArticleChangeDto {
+
+    Long id;
+
+    ArticleChangeType type;
+
+    Long authorId;
+
+    String title;
+
+    Set<String> tags;
+}
@@ -0,0 +1,33 @@
+package com.elseff.project.web.api.modules.article.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ArticleChangesDto {
+
+    @Schema(description = "cursor for the next request")
+    Long cursor;
+
+    @Schema(description = "the cursor can no longer be served, reload all articles and sync from the returned cursor")
+    boolean resyncRequired;
+
+    @Schema(description = "more changes follow, request again with the returned cursor")
+    boolean hasMore;
+
+    @Schema(description = "articles created or updated after the cursor")
+    List<ArticleDto> articles;
+
+    @Schema(description = "articles deleted after the cursor")
+    List<ArticleTombstoneDto> deleted;
+}
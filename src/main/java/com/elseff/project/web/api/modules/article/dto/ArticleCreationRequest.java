@@ -5,7 +5,9 @@ import lombok.*;
 import lombok.experimental.FieldDefaults;
 
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
+import java.util.Set;
 
 @Setter
 @Getter
@@ -24,4 +26,7 @@ public class ArticleCreationRequest {
     @NotNull(message = "Description shouldn't be a null")
     @Size(min = 10, max = 10000, message = "description should be between 10 and 10000 characters")
     String description;
+
+    @Size(max = 10, message = "article can't have more than 10 tags")
+    Set<@NotBlank(message = "tag shouldn't be blank") @Size(max = 50, message = "tag should be up to 50 characters") String> tags;
 }
@@ -2,10 +2,13 @@ package com.elseff.project.web.api.modules.article.dto;
 
 import com.elseff.project.web.api.modules.user.dto.UserDto;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
 import java.sql.Timestamp;
+import java.util.List;
+import java.util.Set;
 
 @Getter
 @Setter
@@ -20,7 +23,19 @@ public class ArticleDto {
 
     String title;
 
-    String description;
+    /**
+     * A String, or an ArticleBody serialized straight from the article body store
+     */
+    @Schema(implementation = String.class)
+    CharSequence description;
+
+    String descriptionHtml;
+
+    String excerpt;
+
+    Integer wordCount;
+
+    Integer readingTime;
 
     Timestamp createdAt;
 
@@ -28,5 +43,18 @@ public class ArticleDto {
 
     Timestamp updatedAt;
 
+    Integer commentCount;
+
+    Long views;
+
+    /**
+     * Set instead of the author in normalized lists
+     */
+    Long authorId;
+
     UserDto author;
+
+    Set<String> tags;
+
+    List<ArticleDto> related;
 }
@@ -0,0 +1,19 @@
+package com.elseff.project.web.api.modules.article.dto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.sql.Timestamp;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ArticleTombstoneDto {
+
+    Long id;
+
+    Timestamp deletedAt;
+}
@@ -4,7 +4,9 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
+import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
+import java.util.Set;
 
 
 @Setter
@@ -22,4 +24,7 @@ public class ArticleUpdateRequest {
 
     @Size(min = 10, max = 10000, message = "description should be between 10 and 10000 characters")
     String description;
+
+    @Size(max = 10, message = "article can't have more than 10 tags")
+    Set<@NotBlank(message = "tag shouldn't be blank") @Size(max = 50, message = "tag should be up to 50 characters") String> tags;
 }
@@ -0,0 +1,24 @@
+package com.elseff.project.web.api.modules.article.dto;
+
+import com.elseff.project.web.api.modules.user.dto.UserDto;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class NormalizedArticlesDto {
+
+    @Schema(description = "articles with the authorId instead of the author")
+    List<ArticleDto> articles;
+
+    @Schema(description = "authors of the articles by id, each one once")
+    Map<Long, UserDto> authors;
+}
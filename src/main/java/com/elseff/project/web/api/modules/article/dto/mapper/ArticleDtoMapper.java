@@ -1,11 +1,19 @@
 package com.elseff.project.web.api.modules.article.dto.mapper;
 
 import com.elseff.project.persistense.ArticleEntity;
+import com.elseff.project.persistense.TagEntity;
 import com.elseff.project.web.api.modules.article.dto.ArticleDto;
+import com.elseff.project.web.api.modules.article.dto.NormalizedArticlesDto;
+import com.elseff.project.web.api.modules.article.readmodel.ArticleView;
+import com.elseff.project.web.api.modules.article.readmodel.AuthorView;
 import com.elseff.project.web.api.modules.user.dto.UserDto;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 @Component
@@ -16,14 +24,40 @@ public class ArticleDtoMapper {
                 .id(article.getId())
                 .title(article.getTitle())
                 .description(article.getDescription())
+                .wordCount(article.getWordCount())
+                .readingTime(article.getReadingTime())
                 .createdAt(article.getCreatedAt())
                 .edited(article.getEdited())
                 .updatedAt(article.getUpdatedAt())
+                .commentCount(article.getCommentCount())
+                .views(article.getViews())
                 .author(UserDto.builder()
                         .id(article.getAuthor().getId())
                         .firstName(article.getAuthor().getFirstName())
                         .lastName(article.getAuthor().getLastName())
                         .build())
+                .tags(mapTags(article.getTags()))
+                .build();
+    }
+
+    public ArticleDto mapArticleEntityToPreviewDto(ArticleEntity article) {
+        return ArticleDto.builder()
+                .id(article.getId())
+                .title(article.getTitle())
+                .excerpt(article.getExcerpt())
+                .wordCount(article.getWordCount())
+                .readingTime(article.getReadingTime())
+                .createdAt(article.getCreatedAt())
+                .edited(article.getEdited())
+                .updatedAt(article.getUpdatedAt())
+                .commentCount(article.getCommentCount())
+                .views(article.getViews())
+                .author(UserDto.builder()
+                        .id(article.getAuthor().getId())
+                        .firstName(article.getAuthor().getFirstName())
+                        .lastName(article.getAuthor().getLastName())
+                        .build())
+                .tags(mapTags(article.getTags()))
                 .build();
     }
 
@@ -31,7 +65,7 @@ public class ArticleDtoMapper {
         return ArticleDto.builder()
                 .id(article.getId())
                 .title(article.getTitle())
-                .description(article.getDescription())
+                .excerpt(article.getExcerpt())
                 .build();
     }
 
@@ -41,9 +75,103 @@ public class ArticleDtoMapper {
                 .collect(Collectors.toList());
     }
 
+    public List<ArticleDto> mapListArticleEntityToPreviewDto(List<ArticleEntity> articles) {
+        return articles.stream()
+                .map(this::mapArticleEntityToPreviewDto)
+                .collect(Collectors.toList());
+    }
+
     public List<ArticleDto> mapListArticleEntityToSimpleDto(List<ArticleEntity> articles) {
         return articles.stream()
                 .map(this::mapArticleEntityToSimpleDto)
                 .collect(Collectors.toList());
     }
+
+    public ArticleDto mapArticleViewToDto(ArticleView article) {
+        return mapArticleView(article)
+                .description(article.getDescription())
+                .build();
+    }
+
+    public ArticleDto mapArticleViewToPreviewDto(ArticleView article) {
+        return mapArticleView(article)
+                .excerpt(article.getExcerpt())
+                .build();
+    }
+
+    public ArticleDto mapArticleViewToSimpleDto(ArticleView article) {
+        return ArticleDto.builder()
+                .id(article.getId())
+                .title(article.getTitle())
+                .excerpt(article.getExcerpt())
+                .build();
+    }
+
+    public List<ArticleDto> mapListArticleViewToDto(List<ArticleView> articles) {
+        return articles.stream()
+                .map(this::mapArticleViewToDto)
+                .collect(Collectors.toList());
+    }
+
+    public List<ArticleDto> mapListArticleViewToPreviewDto(List<ArticleView> articles) {
+        return articles.stream()
+                .map(this::mapArticleViewToPreviewDto)
+                .collect(Collectors.toList());
+    }
+
+    public List<ArticleDto> mapListArticleViewToSimpleDto(List<ArticleView> articles) {
+        return articles.stream()
+                .map(this::mapArticleViewToSimpleDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Moves the authors out of the articles, so an author of many articles is serialized once
+     */
+    public NormalizedArticlesDto normalize(List<ArticleDto> articles) {
+        Map<Long, UserDto> authors = new LinkedHashMap<>();
+        for (ArticleDto article : articles) {
+            UserDto author = article.getAuthor();
+            if (author == null)
+                continue;
+            authors.putIfAbsent(author.getId(), author);
+            article.setAuthorId(author.getId());
+            article.setAuthor(null);
+        }
+        return NormalizedArticlesDto.builder()
+                .articles(articles)
+                .authors(authors)
+                .build();
+    }
+
+    /**
+     * Everything but the description and the excerpt
+     */
+    private ArticleDto.ArticleDtoBuilder mapArticleView(ArticleView article) {
+        AuthorView author = article.getAuthor();
+        return ArticleDto.builder()
+                .id(article.getId())
+                .title(article.getTitle())
+                .wordCount(article.getWordCount())
+                .readingTime(article.getReadingTime())
+                .createdAt(article.getCreatedAt())
+                .edited(article.isEdited())
+                .updatedAt(article.getUpdatedAt())
+                .commentCount(article.getCommentCount())
+                .views(article.getViews())
+                .author(UserDto.builder()
+                        .id(author.getId())
+                        .firstName(author.getFirstName())
+                        .lastName(author.getLastName())
+                        .build())
+                .tags(article.getTags());
+    }
+
+    private Set<String> mapTags(Set<TagEntity> tags) {
+        if (tags == null)
+            return null;
+        return tags.stream()
+                .map(TagEntity::getName)
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
 }
@@ -0,0 +1,42 @@
+package com.elseff.project.web.api.modules.article.event;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+import java.util.Set;
+
+/**
+ * Published by the services inside the transaction that changes an article.
+ * Listeners that maintain in-memory state should use
+ * {@link org.springframework.transaction.event.TransactionalEventListener}, so they only see committed changes.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ArticleChangeEvent {
+
+    ArticleChangeType type;
+
+    Long articleId;
+
+    Long authorId;
+
+    /**
+     * Title of the article after the change, the last known title for a deleted article
+     */
+    String title;
+
+    /**
+     * Tags of the article after the change, the last known tags for a deleted article
+     */
+    Set<String> tags;
+
+    /**
+     * Tags of the article before the change, empty for a created article
+     */
+    Set<String> previousTags;
+}
@@ -0,0 +1,7 @@
+package com.elseff.project.web.api.modules.article.event;
+
+public enum ArticleChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,17 @@
+package com.elseff.project.web.api.modules.article.event;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Published by the services inside the transaction that sets a new description of an article
+ */
+@Getter
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ArticleDescriptionChangeEvent {
+
+    String description;
+}
@@ -1,10 +1,11 @@
 package com.elseff.project.web.api.modules.article.exception;
 
+import com.elseff.project.exception.NotFoundException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.NOT_FOUND)
-public class ArticleNotFoundException extends RuntimeException {
+public class ArticleNotFoundException extends NotFoundException {
     public ArticleNotFoundException(Long id) {
         super("could not found article " + id);
     }
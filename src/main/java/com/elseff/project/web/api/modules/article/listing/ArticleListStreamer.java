@@ -0,0 +1,58 @@
+package com.elseff.project.web.api.modules.article.listing;
+
+import com.elseff.project.web.api.modules.article.dto.mapper.ArticleDtoMapper;
+import com.elseff.project.web.api.modules.article.readmodel.ArticleReadModel;
+import com.elseff.project.web.api.modules.article.readmodel.ArticleView;
+import com.elseff.project.web.api.streaming.JsonArrayStreamer;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+
+/**
+ * Streams all articles, or those of an author, in the same form as the lists built by {@link ArticleDtoMapper}.
+ * Articles are read by id with the query of the {@link ArticleReadModel}, with their author and tags in the same row,
+ * so that no entity is created and no tag is fetched by a query of its own.
+ */
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ArticleListStreamer {
+
+    private static final String SELECT_PREVIEWS = ArticleReadModel.selectArticles("NULL AS description");
+
+    private static final String SELECT_FULL = ArticleReadModel.selectArticles("a.description");
+
+    JsonArrayStreamer jsonArrayStreamer;
+
+    ArticleDtoMapper articleDtoMapper;
+
+    /**
+     * @param authorId only articles by this author, all articles if null
+     * @param full     the description instead of the excerpt
+     */
+    public ResponseEntity<StreamingResponseBody> stream(Long authorId, boolean full) {
+        String sql = (full ? SELECT_FULL : SELECT_PREVIEWS)
+                + (authorId == null ? "" : " WHERE a.author_id = ?")
+                + " ORDER BY a.id";
+        return jsonArrayStreamer.stream(sql, preparedStatement -> {
+            if (authorId != null)
+                preparedStatement.setLong(1, authorId);
+        }, (row, rowNumber) -> full
+                ? articleDtoMapper.mapArticleViewToDto(ArticleReadModel.mapArticle(row, row.getString("description")))
+                : articleDtoMapper.mapArticleViewToPreviewDto(ArticleReadModel.mapArticle(row, null)));
+    }
+
+    /**
+     * Articles of the read model, mapped one at a time while they are written
+     */
+    public ResponseEntity<StreamingResponseBody> stream(List<ArticleView> articles, boolean full) {
+        return jsonArrayStreamer.stream(articles, full
+                ? articleDtoMapper::mapArticleViewToDto
+                : articleDtoMapper::mapArticleViewToPreviewDto);
+    }
+}
@@ -0,0 +1,83 @@
+package com.elseff.project.web.api.modules.article.markdown;
+
+import com.elseff.project.web.api.modules.article.event.ArticleDescriptionChangeEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Renders article descriptions from Markdown to HTML.
+ * <p>
+ * Results are cached by the SHA-256 of the source, so an unchanged description is parsed only once
+ * no matter how many articles share it or how often it is read.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class MarkdownRenderer {
+
+    Parser parser = Parser.builder().build();
+
+    HtmlRenderer htmlRenderer = HtmlRenderer.builder()
+            .escapeHtml(true)
+            .sanitizeUrls(true)
+            .build();
+
+    Cache<String, String> cache;
+
+    Timer renderTimer;
+
+    public MarkdownRenderer(MeterRegistry meterRegistry,
+                            @Value("${markdown.cache.max-chars:10000000}") long cacheMaxChars) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxChars)
+                .<String, String>weigher((key, html) -> html.length())
+                .recordStats()
+                .build();
+        this.renderTimer = Timer.builder("articles.markdown.render")
+                .description("Time spent rendering article descriptions to HTML")
+                .register(meterRegistry);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "markdown");
+    }
+
+    public String render(String markdown) {
+        return cache.get(hash(markdown), key -> renderTimer.record(() -> renderUncached(markdown)));
+    }
+
+    /**
+     * Renders a new description once it is committed, outside of the transaction that writes it,
+     * so the first read finds it in the cache
+     */
+    @TransactionalEventListener
+    public void onDescriptionChange(ArticleDescriptionChangeEvent event) {
+        render(event.getDescription());
+    }
+
+    String renderUncached(String markdown) {
+        return htmlRenderer.render(parser.parse(markdown));
+    }
+
+    private static String hash(String markdown) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(markdown.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.elseff.project.web.api.modules.article.readmodel;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.io.IOException;
+
+/**
+ * Description of an article kept in the {@link ArticleBodyStore}. Serialized from the stored UTF-8 bytes;
+ * the {@link CharSequence} methods decode the body on every call and are meant for the rare callers that need text.
+ * They fail if the store has no body of the article, which is a bug of the read model rather than an empty description.
+ */
+@RequiredArgsConstructor
+@EqualsAndHashCode(of = "id")
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ArticleBody implements CharSequence, JsonSerializable {
+
+    ArticleBodyStore store;
+
+    long id;
+
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider serializers) throws IOException {
+        store.write(id, generator);
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider serializers,
+                                  TypeSerializer typeSerializer) throws IOException {
+        serialize(generator, serializers);
+    }
+
+    @Override
+    public int length() {
+        return toString().length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        String body = store.read(id);
+        if (body == null)
+            throw new IllegalStateException("article body store has no body of article " + id);
+        return body;
+    }
+}
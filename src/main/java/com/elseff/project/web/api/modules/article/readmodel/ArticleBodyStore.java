@@ -0,0 +1,410 @@
+package com.elseff.project.web.api.modules.article.readmodel;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Article descriptions kept outside the heap, in memory-mapped append-only segment files.
+ * Enabled with {@code articles.read-model.body-store.enabled}, used by the {@link ArticleReadModel}.
+ * <p>
+ * A record is a header (magic, article id, MD5 of the body, length) followed by the UTF-8 body. A new body
+ * is appended to the active segment and replaces the location of the article in the id index; the old record
+ * becomes garbage. Segments that are mostly garbage are compacted in the background by copying their live
+ * records to the active segment and deleting the file. Readers may still hold the mapping of a deleted
+ * segment, which stays valid until it is garbage collected.
+ * <p>
+ * The segments are scanned at startup, so the bodies survive restarts. Whether a body is still current
+ * is decided by the caller from the MD5, which the database computes without sending the body.
+ * The directory is locked while the store is open, another process or store opening it fails to start,
+ * as both would append to the same active segment.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "articles.read-model.body-store.enabled", havingValue = "true")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ArticleBodyStore {
+
+    private static final int MAGIC = 0x41425331;
+
+    private static final int DIGEST_LENGTH = 16;
+
+    // magic, id, digest, length
+    private static final int HEADER_LENGTH = Integer.BYTES + Long.BYTES + DIGEST_LENGTH + Integer.BYTES;
+
+    /**
+     * Sealed segments with less live data than this are compacted
+     */
+    private static final double MIN_LIVE_RATIO = 0.5;
+
+    /**
+     * Bodies up to this size are copied to a buffer reused by the thread
+     */
+    private static final int MAX_REUSED_BUFFER = 64 * 1024;
+
+    private static final String LOCK_FILE = "store.lock";
+
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[4096]);
+
+    final Path directory;
+
+    final int segmentSize;
+
+    final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    final LongObjectMap<Location> index = new LongObjectMap<>();
+
+    /**
+     * Ordered by number, the last one is the active segment. Changed under the write lock.
+     */
+    final List<Segment> segments = new ArrayList<>();
+
+    /**
+     * Held until the store is closed
+     */
+    FileChannel lockChannel;
+
+    public ArticleBodyStore(@Value("${articles.read-model.body-store.directory:data/article-bodies}") Path directory,
+                            @Value("${articles.read-model.body-store.segment-size:64MB}") DataSize segmentSize,
+                            MeterRegistry meterRegistry) throws IOException {
+        this.directory = directory;
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        open();
+
+        Gauge.builder("articles.read-model.body-store.segments", this, store -> store.readLocked(store.segments::size))
+                .description("Segment files of the article body store")
+                .register(meterRegistry);
+        Gauge.builder("articles.read-model.body-store.used", this, store -> store.sumSegments(segment -> segment.position))
+                .description("Bytes of the segment files in use, including garbage")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("articles.read-model.body-store.live", this, store -> store.sumSegments(segment -> segment.live))
+                .description("Bytes of the current article bodies and their headers")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether the store has a body of the article with the given MD5
+     */
+    public boolean matches(long id, byte[] digest) {
+        Location location = readLocked(() -> index.get(id));
+        if (location == null)
+            return false;
+        byte[] stored = new byte[DIGEST_LENGTH];
+        location.segment.buffer.get(location.offset + Integer.BYTES + Long.BYTES, stored);
+        return Arrays.equals(stored, digest);
+    }
+
+    /**
+     * A handle reading the current body of the article from the store
+     */
+    public ArticleBody body(long id) {
+        return new ArticleBody(this, id);
+    }
+
+    public synchronized void put(long id, String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        Segment segment = activeSegment(HEADER_LENGTH + bytes.length);
+        int offset = segment.position;
+        MappedByteBuffer buffer = segment.buffer;
+        buffer.put(offset + HEADER_LENGTH, bytes);
+        buffer.putInt(offset + HEADER_LENGTH - Integer.BYTES, bytes.length);
+        buffer.put(offset + Integer.BYTES + Long.BYTES, digest(bytes));
+        buffer.putLong(offset + Integer.BYTES, id);
+        // written last, a record without it is ignored by the scan at startup
+        buffer.putInt(offset, MAGIC);
+        segment.position += HEADER_LENGTH + bytes.length;
+
+        Location location = new Location(segment, offset, bytes.length);
+        writeLocked(() -> replace(id, location));
+    }
+
+    public synchronized void remove(long id) {
+        writeLocked(() -> replace(id, null));
+    }
+
+    /**
+     * Removes the bodies of the articles not matching the predicate
+     */
+    public synchronized void retainAll(LongPredicate retained) {
+        List<Long> removed = new ArrayList<>();
+        index.forEachKey(id -> {
+            if (!retained.test(id))
+                removed.add(id);
+        });
+        writeLocked(() -> removed.forEach(id -> replace(id, null)));
+    }
+
+    public String read(long id) {
+        Location location = readLocked(() -> index.get(id));
+        if (location == null)
+            return null;
+        byte[] bytes = new byte[location.length];
+        location.segment.buffer.get(location.offset + HEADER_LENGTH, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the body as a string value. Generators writing to a stream, as the ones of the HTTP message
+     * converters, escape the UTF-8 bytes without decoding them; the others get the decoded body.
+     */
+    public void write(long id, JsonGenerator generator) throws IOException {
+        Location location = readLocked(() -> index.get(id));
+        if (location == null) {
+            generator.writeNull();
+            return;
+        }
+        byte[] bytes = location.length <= MAX_REUSED_BUFFER ? BUFFER.get() : new byte[location.length];
+        if (bytes.length < location.length) {
+            bytes = new byte[MAX_REUSED_BUFFER];
+            BUFFER.set(bytes);
+        }
+        location.segment.buffer.get(location.offset + HEADER_LENGTH, bytes, 0, location.length);
+        try {
+            generator.writeUTF8String(bytes, 0, location.length);
+        } catch (UnsupportedOperationException e) {
+            generator.writeString(new String(bytes, 0, location.length, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Copies the live records of sealed segments with too much garbage to the active segment
+     */
+    @Scheduled(fixedDelayString = "${articles.read-model.body-store.compaction-interval:PT10M}")
+    public synchronized void compact() {
+        List<Segment> sealed = segments.subList(0, Math.max(0, segments.size() - 1)).stream()
+                .filter(segment -> segment.live < segment.position * MIN_LIVE_RATIO)
+                .collect(Collectors.toList());
+
+        for (Segment segment : sealed) {
+            List<Long> ids = new ArrayList<>();
+            index.forEachKey(id -> {
+                if (index.get(id).segment == segment)
+                    ids.add(id);
+            });
+            for (Long id : ids) {
+                Location location = index.get(id);
+                int recordLength = HEADER_LENGTH + location.length;
+                Segment target = activeSegment(recordLength);
+                byte[] record = new byte[recordLength];
+                segment.buffer.get(location.offset, record);
+                target.buffer.put(target.position, record);
+                Location moved = new Location(target, target.position, location.length);
+                target.position += recordLength;
+                writeLocked(() -> replace(id, moved));
+            }
+            writeLocked(() -> segments.remove(segment));
+            try {
+                Files.delete(segment.path);
+            } catch (IOException e) {
+                log.warn("could not delete compacted segment {}", segment.path, e);
+            }
+            log.info("compacted segment {}, moved {} article bodies", segment.path.getFileName(), ids.size());
+        }
+    }
+
+    /**
+     * A mapping cannot be released explicitly, it is unmapped once its buffer is garbage collected
+     */
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        segments.forEach(segment -> segment.buffer.force());
+        // releases the lock
+        lockChannel.close();
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        lock();
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = files.filter(path -> path.getFileName().toString().endsWith(".segment"))
+                    .sorted(Comparator.comparingLong(ArticleBodyStore::segmentNumber))
+                    .collect(Collectors.toList());
+        }
+        for (Path path : paths)
+            scan(map(path, Math.max(segmentSize, Math.toIntExact(Files.size(path)))));
+        log.info("article body store has been opened with {} bodies in {} segments", index.size(), segments.size());
+    }
+
+    private void lock() throws IOException {
+        Path path = directory.resolve(LOCK_FILE);
+        lockChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock fileLock;
+        try {
+            fileLock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // held by another store of this JVM
+            fileLock = null;
+        }
+        if (fileLock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("article body store " + directory + " is already in use");
+        }
+    }
+
+    private void scan(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = 0;
+        while (offset + HEADER_LENGTH <= buffer.capacity() && buffer.getInt(offset) == MAGIC) {
+            int length = buffer.getInt(offset + HEADER_LENGTH - Integer.BYTES);
+            if (length < 0 || offset + HEADER_LENGTH + length > buffer.capacity())
+                break;
+            replace(buffer.getLong(offset + Integer.BYTES), new Location(segment, offset, length));
+            offset += HEADER_LENGTH + length;
+        }
+        segment.position = offset;
+        segments.add(segment);
+    }
+
+    /**
+     * The segment to append a record of the given length to, a new one if the active segment is full
+     */
+    private Segment activeSegment(int recordLength) {
+        Segment active = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (active != null && active.position + recordLength <= active.buffer.capacity())
+            return active;
+
+        long number = active == null ? 0 : segmentNumber(active.path) + 1;
+        Path path = directory.resolve(String.format("%019d.segment", number));
+        Segment segment;
+        try {
+            segment = map(path, Math.max(segmentSize, recordLength));
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not create segment " + path, e);
+        }
+        writeLocked(() -> segments.add(segment));
+        return segment;
+    }
+
+    /**
+     * Points the article to the new location, or removes it if null, keeping the live bytes of the segments
+     */
+    private void replace(long id, Location location) {
+        Location previous = location == null ? index.remove(id) : index.put(id, location);
+        if (previous != null)
+            previous.segment.live -= HEADER_LENGTH + previous.length;
+        if (location != null)
+            location.segment.live += HEADER_LENGTH + location.length;
+    }
+
+    private long sumSegments(ToLongFunction<Segment> size) {
+        return readLocked(() -> segments.stream().mapToLong(size).sum());
+    }
+
+    private static Segment map(Path path, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // the mapping stays valid after the channel is closed
+            return new Segment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+
+    private static long segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.indexOf('.')));
+    }
+
+    private static byte[] digest(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("MD5").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private <T> T readLocked(Supplier<T> reader) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return reader.get();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private void writeLocked(Runnable writer) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            writer.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static final class Segment {
+
+        final Path path;
+
+        final MappedByteBuffer buffer;
+
+        /**
+         * End of the last record, only changed by the writer
+         */
+        int position;
+
+        /**
+         * Bytes of the records in the index, changed under the write lock
+         */
+        long live;
+
+        Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+
+    private static final class Location {
+
+        final Segment segment;
+
+        /**
+         * Offset of the record header in the segment
+         */
+        final int offset;
+
+        final int length;
+
+        Location(Segment segment, int offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
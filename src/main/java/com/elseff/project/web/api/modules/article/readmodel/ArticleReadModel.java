@@ -0,0 +1,448 @@
+package com.elseff.project.web.api.modules.article.readmodel;
+
+import com.elseff.project.cache.CacheInvalidationEvent;
+import com.elseff.project.cache.CachedEntity;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeEvent;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeType;
+import com.elseff.project.web.api.modules.article.exception.ArticleNotFoundException;
+import com.elseff.project.web.api.modules.article.view.ArticleViewsFlushedEvent;
+import com.elseff.project.web.api.modules.comment.event.CommentCountChangeEvent;
+import com.elseff.project.web.api.modules.user.event.UserChangeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory copy of all articles, serving the article reads without a database round trip.
+ * Enabled with {@code articles.read-model.enabled}.
+ * <p>
+ * Articles are kept as immutable {@link ArticleView}s in a map keyed by primitive ids, next to the sorted ids
+ * of all articles and of every author. The views are loaded at startup and reloaded from the database after
+ * every committed change of an article, its comment count, its views or the profile of its author.
+ * Writers are serialized and load the rows before taking the write lock, so readers only wait for the
+ * views to be swapped in. Every {@code articles.read-model.check-interval} the views are compared with the
+ * database, and the ones that differ are reloaded.
+ * <p>
+ * With the {@link ArticleBodyStore} enabled the descriptions are kept off the heap. Only their MD5 is read
+ * with the articles, and a description is fetched when the store has none or a different one.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "articles.read-model.enabled", havingValue = "true")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ArticleReadModel {
+
+    /**
+     * Takes the description column, see {@link #selectArticles(String)}
+     */
+    private static final String SELECT_ARTICLES = "SELECT a.id, a.title, %s, a.excerpt, a.word_count, " +
+            "a.reading_time, a.created_at, a.edited, a.updated_at, a.comment_count, a.views, " +
+            "u.id AS author_id, u.first_name, u.last_name, " +
+            "ARRAY(SELECT t.name FROM article_tag art JOIN tag t ON t.id = art.tag_id WHERE art.article_id = a.id) AS tags " +
+            "FROM article a JOIN _user u ON u.id = a.author_id";
+
+    private static final String SELECT_DESCRIPTIONS = "SELECT id, description FROM article WHERE id = ANY(?)";
+
+    /**
+     * Bodies fetched with one query
+     */
+    private static final int DESCRIPTION_BATCH = 500;
+
+    private static final long[] NO_IDS = new long[0];
+
+    final JdbcTemplate jdbcTemplate;
+
+    /**
+     * null if the descriptions are kept on the heap
+     */
+    final ArticleBodyStore bodyStore;
+
+    final String selectArticles;
+
+    final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    final LongObjectMap<ArticleView> articles = new LongObjectMap<>();
+
+    /**
+     * Ids of the articles of every author, ascending
+     */
+    final LongObjectMap<long[]> idsByAuthor = new LongObjectMap<>();
+
+    /**
+     * Ids of all articles, ascending, in the first {@link #size} elements
+     */
+    long[] ids = new long[16];
+
+    int size;
+
+    volatile boolean loaded;
+
+    final Counter mismatches;
+
+    final Counter fetchedBodies;
+
+    public ArticleReadModel(JdbcTemplate jdbcTemplate,
+                            ObjectProvider<ArticleBodyStore> bodyStore,
+                            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bodyStore = bodyStore.getIfAvailable();
+        this.selectArticles = selectArticles(this.bodyStore == null
+                ? "a.description"
+                : "decode(md5(a.description), 'hex') AS description_md5");
+        this.mismatches = Counter.builder("articles.read-model.mismatches")
+                .description("Articles of the read model found to differ from the database")
+                .register(meterRegistry);
+        this.fetchedBodies = Counter.builder("articles.read-model.body-store.fetched")
+                .description("Descriptions fetched from the database because the body store had none or an old one")
+                .register(meterRegistry);
+
+        Gauge.builder("articles.read-model.articles", this, ArticleReadModel::size)
+                .description("Articles in the read model")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The query of the articles with their author and tags in the same row, to be read by
+     * {@link #mapArticle(ResultSet, CharSequence)}. Conditions and the order are appended to it.
+     *
+     * @param descriptionColumn the description itself, its MD5 when the bodies are in the body store,
+     *                          or NULL when only the excerpt is needed
+     */
+    public static String selectArticles(String descriptionColumn) {
+        return String.format(SELECT_ARTICLES, descriptionColumn);
+    }
+
+    /**
+     * The article of a row of {@link #selectArticles(String)}, with the description read by the caller
+     */
+    public static ArticleView mapArticle(ResultSet resultSet, CharSequence description) throws SQLException {
+        Array tags = resultSet.getArray("tags");
+        return ArticleView.builder()
+                .id(resultSet.getLong("id"))
+                .title(resultSet.getString("title"))
+                .description(description)
+                .excerpt(resultSet.getString("excerpt"))
+                .wordCount(resultSet.getInt("word_count"))
+                .readingTime(resultSet.getInt("reading_time"))
+                .createdAt(resultSet.getTimestamp("created_at"))
+                .edited(resultSet.getBoolean("edited"))
+                .updatedAt(resultSet.getTimestamp("updated_at"))
+                .commentCount(resultSet.getInt("comment_count"))
+                .views(resultSet.getLong("views"))
+                .author(new AuthorView(resultSet.getLong("author_id"),
+                        resultSet.getString("first_name"),
+                        resultSet.getString("last_name")))
+                .tags(Collections.unmodifiableSortedSet(new TreeSet<>(Arrays.asList((String[]) tags.getArray()))))
+                .build();
+    }
+
+    private ArticleView mapRow(ResultSet resultSet, List<Long> staleBodies) throws SQLException {
+        if (bodyStore == null)
+            return mapArticle(resultSet, resultSet.getString("description"));
+        long id = resultSet.getLong("id");
+        if (!bodyStore.matches(id, resultSet.getBytes("description_md5")))
+            staleBodies.add(id);
+        return mapArticle(resultSet, bodyStore.body(id));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        List<ArticleView> views = query("", null);
+        write(() -> {
+            articles.clear();
+            idsByAuthor.clear();
+            size = 0;
+            views.forEach(this::put);
+        });
+        if (bodyStore != null)
+            bodyStore.retainAll(id -> articles.get(id) != null);
+        loaded = true;
+        log.info("article read model has been loaded with {} articles", views.size());
+    }
+
+    /**
+     * false until the articles have been loaded at startup, callers should read from the database until then
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * All articles by ascending id
+     */
+    public List<ArticleView> findAll() {
+        return read(() -> {
+            List<ArticleView> views = new ArrayList<>(size);
+            for (int i = 0; i < size; i++)
+                views.add(articles.get(ids[i]));
+            return views;
+        });
+    }
+
+    /**
+     * Articles of the author by ascending id
+     */
+    public List<ArticleView> findAllByAuthorId(long authorId) {
+        return read(() -> {
+            long[] authorIds = idsByAuthor.get(authorId);
+            if (authorIds == null)
+                return List.of();
+            List<ArticleView> views = new ArrayList<>(authorIds.length);
+            for (long id : authorIds)
+                views.add(articles.get(id));
+            return views;
+        });
+    }
+
+    /**
+     * Articles in the order of the given ids, ids of missing articles are skipped
+     */
+    public List<ArticleView> findAllByIdIn(List<Long> ids) {
+        return read(() -> {
+            List<ArticleView> views = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                ArticleView view = articles.get(id);
+                if (view != null)
+                    views.add(view);
+            }
+            return views;
+        });
+    }
+
+    public ArticleView findById(long id) {
+        ArticleView view = read(() -> articles.get(id));
+        if (view == null)
+            throw new ArticleNotFoundException(id);
+        return view;
+    }
+
+    public int size() {
+        return read(articles::size);
+    }
+
+    @TransactionalEventListener
+    public void onArticleChange(ArticleChangeEvent event) {
+        if (event.getType() == ArticleChangeType.DELETED) {
+            synchronized (this) {
+                remove(event.getArticleId());
+            }
+        } else {
+            refresh(List.of(event.getArticleId()));
+        }
+    }
+
+    @TransactionalEventListener
+    public void onCommentCountChange(CommentCountChangeEvent event) {
+        refresh(List.of(event.getArticleId()));
+    }
+
+    @EventListener
+    public void onViewsFlushed(ArticleViewsFlushedEvent event) {
+        refresh(event.getArticleIds());
+    }
+
+    @TransactionalEventListener
+    public void onUserChange(UserChangeEvent event) {
+        refreshAuthor(event.getUserId());
+    }
+
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (event.isAll())
+            load();
+        else if (event.getEntity() == CachedEntity.USER)
+            refreshAuthor(event.getId());
+        else if (event.getArticleChange() != null)
+            onArticleChange(event.getArticleChange());
+        else
+            refresh(List.of(event.getId()));
+    }
+
+    /**
+     * Compares every view with its row and reloads the articles that differ. Changes committed while the rows
+     * are read can be reported as well, reloading them does no harm. Outdated bodies of the body store
+     * are fetched again while the rows are read.
+     */
+    @Scheduled(fixedDelayString = "${articles.read-model.check-interval:PT10M}",
+            initialDelayString = "${articles.read-model.check-interval:PT10M}")
+    public void check() {
+        if (!loaded)
+            return;
+
+        LongObjectMap<ArticleView> rows = new LongObjectMap<>(size());
+        query("", null).forEach(row -> rows.put(row.getId(), row));
+
+        List<Long> differing = read(() -> {
+            List<Long> found = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                ArticleView row = rows.remove(ids[i]);
+                if (!articles.get(ids[i]).equals(row))
+                    found.add(ids[i]);
+            }
+            return found;
+        });
+        // rows left are not in the read model
+        rows.forEachKey(differing::add);
+
+        if (differing.isEmpty())
+            return;
+        log.warn("{} articles of the read model differ from the database, reloading them", differing.size());
+        mismatches.increment(differing.size());
+        refresh(differing);
+    }
+
+    private synchronized void refreshAuthor(long authorId) {
+        List<ArticleView> views = query(" WHERE a.author_id = ?",
+                preparedStatement -> preparedStatement.setLong(1, authorId));
+        write(() -> views.forEach(this::put));
+    }
+
+    /**
+     * Reloads the articles, removing the ones that no longer exist
+     */
+    private synchronized void refresh(Collection<Long> articleIds) {
+        if (articleIds.isEmpty())
+            return;
+        List<ArticleView> views = query(" WHERE a.id = ANY(?)", idArray(articleIds));
+        write(() -> views.forEach(this::put));
+
+        Set<Long> found = views.stream().map(ArticleView::getId).collect(Collectors.toSet());
+        articleIds.stream()
+                .filter(id -> !found.contains(id))
+                .forEach(this::remove);
+    }
+
+    /**
+     * Reads the articles matching the condition, fetching the descriptions missing in the body store
+     */
+    private List<ArticleView> query(String condition, PreparedStatementSetter parameters) {
+        List<Long> staleBodies = new ArrayList<>();
+        List<ArticleView> views = jdbcTemplate.query(selectArticles + condition, parameters,
+                (resultSet, rowNum) -> mapRow(resultSet, staleBodies));
+
+        for (int from = 0; from < staleBodies.size(); from += DESCRIPTION_BATCH) {
+            List<Long> batch = staleBodies.subList(from, Math.min(from + DESCRIPTION_BATCH, staleBodies.size()));
+            jdbcTemplate.query(SELECT_DESCRIPTIONS, idArray(batch), resultSet -> {
+                bodyStore.put(resultSet.getLong("id"), resultSet.getString("description"));
+            });
+        }
+        fetchedBodies.increment(staleBodies.size());
+        return views;
+    }
+
+    private static PreparedStatementSetter idArray(Collection<Long> ids) {
+        return preparedStatement -> preparedStatement.setArray(1,
+                preparedStatement.getConnection().createArrayOf("bigint", ids.toArray()));
+    }
+
+    private void put(ArticleView view) {
+        ArticleView previous = articles.put(view.getId(), view);
+        if (previous != null && previous.getAuthor().getId() == view.getAuthor().getId())
+            return;
+        if (previous != null)
+            removeFromAuthor(previous);
+        else
+            ids = insert(ids, size++, view.getId());
+
+        long authorId = view.getAuthor().getId();
+        long[] authorIds = idsByAuthor.get(authorId);
+        if (authorIds == null)
+            authorIds = NO_IDS;
+        idsByAuthor.put(authorId, insert(Arrays.copyOf(authorIds, authorIds.length + 1), authorIds.length, view.getId()));
+    }
+
+    /**
+     * Removes the body only after the view, so readers never get a view without its body
+     */
+    private void remove(long id) {
+        write(() -> {
+            ArticleView removed = articles.remove(id);
+            if (removed == null)
+                return;
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            System.arraycopy(ids, index + 1, ids, index, --size - index);
+            removeFromAuthor(removed);
+        });
+        if (bodyStore != null)
+            bodyStore.remove(id);
+    }
+
+    /**
+     * The author arrays are replaced rather than changed, so they are never larger than needed
+     */
+    private void removeFromAuthor(ArticleView view) {
+        long authorId = view.getAuthor().getId();
+        long[] authorIds = idsByAuthor.get(authorId);
+        if (authorIds.length == 1) {
+            idsByAuthor.remove(authorId);
+            return;
+        }
+        int index = Arrays.binarySearch(authorIds, view.getId());
+        long[] remaining = new long[authorIds.length - 1];
+        System.arraycopy(authorIds, 0, remaining, 0, index);
+        System.arraycopy(authorIds, index + 1, remaining, index, remaining.length - index);
+        idsByAuthor.put(authorId, remaining);
+    }
+
+    /**
+     * Inserts the id into the sorted first {@code length} elements, growing the array when it is full
+     *
+     * @return the array holding the result
+     */
+    private static long[] insert(long[] sorted, int length, long id) {
+        if (length == sorted.length)
+            sorted = Arrays.copyOf(sorted, Math.max(16, length * 2));
+        int index = -Arrays.binarySearch(sorted, 0, length, id) - 1;
+        System.arraycopy(sorted, index, sorted, index + 1, length - index);
+        sorted[index] = id;
+        return sorted;
+    }
+
+    private <T> T read(Supplier<T> reader) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return reader.get();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private void write(Runnable writer) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            writer.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
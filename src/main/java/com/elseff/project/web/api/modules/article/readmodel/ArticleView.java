@@ -0,0 +1,55 @@
+package com.elseff.project.web.api.modules.article.readmodel;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+import java.sql.Timestamp;
+import java.util.Set;
+
+/**
+ * Immutable copy of an article row with its author and tags, as kept by the {@link ArticleReadModel}.
+ * The timestamps are never changed after the view is built, so they are shared with the DTOs.
+ */
+@Getter
+@EqualsAndHashCode
+@Builder
+@ToString(exclude = "description")
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ArticleView {
+
+    long id;
+
+    String title;
+
+    /**
+     * A String, or an {@link ArticleBody} when the descriptions are in the body store
+     */
+    CharSequence description;
+
+    String excerpt;
+
+    int wordCount;
+
+    int readingTime;
+
+    Timestamp createdAt;
+
+    boolean edited;
+
+    Timestamp updatedAt;
+
+    int commentCount;
+
+    long views;
+
+    AuthorView author;
+
+    /**
+     * Unmodifiable and sorted
+     */
+    Set<String> tags;
+}
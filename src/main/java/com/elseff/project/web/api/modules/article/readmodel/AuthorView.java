@@ -0,0 +1,25 @@
+package com.elseff.project.web.api.modules.article.readmodel;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * The part of a user shown as the author of an article
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AuthorView {
+
+    long id;
+
+    String firstName;
+
+    String lastName;
+}
@@ -0,0 +1,101 @@
+package com.elseff.project.web.api.modules.article.related;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Locality-sensitive hashing over MinHash signatures.
+ * <p>
+ * Signatures are cut into {@value #BANDS} bands of {@value #ROWS} rows and every article is put into one bucket
+ * per band. Articles sharing a bucket with the query are the candidates; only they are compared by full
+ * signature. A pair with similarity s becomes a candidate with probability 1 - (1 - s^{@value #ROWS})^{@value #BANDS}:
+ * about 0.98 for s = 0.25 and 0.15 for unrelated texts around s = 0.05.
+ * <p>
+ * Lookups don't lock, changes of the same article must not run concurrently.
+ */
+public class LshIndex {
+
+    static final int BANDS = 64;
+
+    static final int ROWS = MinHash.HASHES / BANDS;
+
+    private final Map<Long, int[]> signatures = new ConcurrentHashMap<>();
+
+    private final Map<Long, Set<Long>> buckets = new ConcurrentHashMap<>();
+
+    public void put(long id, int[] signature) {
+        remove(id);
+        signatures.put(id, signature);
+        for (int band = 0; band < BANDS; band++)
+            buckets.computeIfAbsent(bucket(signature, band), key -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+
+    public void remove(long id) {
+        int[] signature = signatures.remove(id);
+        if (signature == null)
+            return;
+
+        for (int band = 0; band < BANDS; band++) {
+            buckets.computeIfPresent(bucket(signature, band), (key, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    /**
+     * Live view of the indexed ids
+     */
+    public Set<Long> ids() {
+        return Collections.unmodifiableSet(signatures.keySet());
+    }
+
+    public int size() {
+        return signatures.size();
+    }
+
+    /**
+     * Ids of the most similar articles, most similar first
+     */
+    public List<Long> findSimilar(long id, int limit, double minSimilarity) {
+        int[] signature = signatures.get(id);
+        if (signature == null)
+            return List.of();
+
+        Set<Long> candidates = new HashSet<>();
+        for (int band = 0; band < BANDS; band++) {
+            Set<Long> ids = buckets.get(bucket(signature, band));
+            if (ids != null)
+                candidates.addAll(ids);
+        }
+        candidates.remove(id);
+
+        List<Map.Entry<Long, Double>> scored = new ArrayList<>(candidates.size());
+        for (Long candidate : candidates) {
+            int[] other = signatures.get(candidate);
+            if (other == null)
+                continue;
+            double similarity = MinHash.similarity(signature, other);
+            if (similarity >= minSimilarity)
+                scored.add(Map.entry(candidate, similarity));
+        }
+        scored.sort(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder()));
+
+        List<Long> similar = new ArrayList<>(Math.min(limit, scored.size()));
+        for (int i = 0; i < limit && i < scored.size(); i++)
+            similar.add(scored.get(i).getKey());
+        return similar;
+    }
+
+    private static long bucket(int[] signature, int band) {
+        int from = band * ROWS;
+        return (long) band << 32 | Arrays.hashCode(Arrays.copyOfRange(signature, from, from + ROWS)) & 0xffffffffL;
+    }
+}
@@ -0,0 +1,105 @@
+package com.elseff.project.web.api.modules.article.related;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * MinHash signatures of article texts.
+ * <p>
+ * A text is reduced to its set of word {@value #SHINGLE_LENGTH}-grams. For every one of the {@value #HASHES} hash
+ * functions the signature keeps the minimum hash over the set, so the share of equal positions of two signatures
+ * estimates the Jaccard similarity of the sets. Hash functions are seeded with constants: signatures are persisted
+ * and have to stay comparable across restarts. A text without words has no signature, the signature of an empty set
+ * would be equal to every other such signature.
+ */
+public final class MinHash {
+
+    public static final int HASHES = 128;
+
+    static final int SHINGLE_LENGTH = 3;
+
+    private static final long[] SEEDS = new SplittableRandom(0x5EEDL).longs(HASHES).toArray();
+
+    private MinHash() {
+    }
+
+    /**
+     * @return null if the text has no words
+     */
+    public static int[] signature(String title, String description) {
+        return signature(shingles(title + " " + description));
+    }
+
+    static int[] signature(Set<Long> shingles) {
+        if (shingles.isEmpty())
+            return null;
+        int[] signature = new int[HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (long shingle : shingles) {
+            for (int i = 0; i < HASHES; i++) {
+                int hash = (int) (mix(shingle ^ SEEDS[i]) >>> 33);
+                if (hash < signature[i])
+                    signature[i] = hash;
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Share of equal positions, an estimate of the Jaccard similarity of the texts
+     */
+    public static double similarity(int[] first, int[] second) {
+        int equal = 0;
+        for (int i = 0; i < HASHES; i++) {
+            if (first[i] == second[i])
+                equal++;
+        }
+        return (double) equal / HASHES;
+    }
+
+    /**
+     * Hashes of the word n-grams of the text, of single words for texts shorter than an n-gram
+     */
+    static Set<Long> shingles(String text) {
+        String[] words = text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+");
+        words = Arrays.stream(words).filter(word -> !word.isEmpty()).toArray(String[]::new);
+
+        int length = Math.min(SHINGLE_LENGTH, words.length);
+        Set<Long> shingles = new HashSet<>();
+        for (int start = 0; start + length <= words.length && length > 0; start++) {
+            long hash = 0;
+            for (int i = start; i < start + length; i++)
+                hash = mix(hash * 31 + words[i].hashCode());
+            shingles.add(hash);
+        }
+        return shingles;
+    }
+
+    public static byte[] toBytes(int[] signature) {
+        ByteBuffer buffer = ByteBuffer.allocate(signature.length * Integer.BYTES);
+        buffer.asIntBuffer().put(signature);
+        return buffer.array();
+    }
+
+    public static int[] fromBytes(byte[] bytes) {
+        int[] signature = new int[bytes.length / Integer.BYTES];
+        ByteBuffer.wrap(bytes).asIntBuffer().get(signature);
+        return signature;
+    }
+
+    /**
+     * Finalizer of MurmurHash3
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,88 @@
+package com.elseff.project.web.api.modules.article.related;
+
+import com.elseff.project.cache.CacheInvalidationEvent;
+import com.elseff.project.persistense.dao.ArticleMinHashRepository;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeEvent;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Finds articles similar to a given one by title and description.
+ * <p>
+ * Signatures are computed and persisted by the article service on every write. The LSH buckets are kept
+ * in memory: loaded from the persisted signatures at startup and updated after each committed change.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RelatedArticles {
+
+    static final double MIN_SIMILARITY = 0.25;
+
+    ArticleMinHashRepository articleMinHashRepository;
+
+    LshIndex index = new LshIndex();
+
+    public RelatedArticles(ArticleMinHashRepository articleMinHashRepository, MeterRegistry meterRegistry) {
+        this.articleMinHashRepository = articleMinHashRepository;
+
+        Gauge.builder("articles.related.indexed", index, LshIndex::size)
+                .description("Articles in the related articles index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        Set<Long> loaded = new HashSet<>();
+        articleMinHashRepository.forEach((signature, articleId) -> {
+            index.put(articleId, signature);
+            loaded.add(articleId);
+        });
+        // only a reload drops anything, the index is empty at startup
+        index.ids().stream()
+                .filter(id -> !loaded.contains(id))
+                .collect(Collectors.toList())
+                .forEach(index::remove);
+        log.info("related articles index has been built for {} articles", index.size());
+    }
+
+    /**
+     * Ids of the most similar articles, most similar first
+     */
+    public List<Long> findRelated(Long articleId, int limit) {
+        return index.findSimilar(articleId, limit, MIN_SIMILARITY);
+    }
+
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (event.isAll())
+            load();
+        else if (event.getArticleChange() != null)
+            onArticleChange(event.getArticleChange());
+    }
+
+    @TransactionalEventListener
+    public synchronized void onArticleChange(ArticleChangeEvent event) {
+        if (event.getType() == ArticleChangeType.DELETED) {
+            index.remove(event.getArticleId());
+            return;
+        }
+        // an article without words has no signature any more
+        articleMinHashRepository.findById(event.getArticleId())
+                .ifPresentOrElse(signature -> index.put(event.getArticleId(), signature),
+                        () -> index.remove(event.getArticleId()));
+    }
+}
@@ -1,74 +1,157 @@
 package com.elseff.project.web.api.modules.article.service;
 
 import com.elseff.project.persistense.ArticleEntity;
+import com.elseff.project.persistense.ArticleTextUtils;
+import com.elseff.project.persistense.TagEntity;
 import com.elseff.project.persistense.UserEntity;
+import com.elseff.project.persistense.dao.ArticleMinHashRepository;
 import com.elseff.project.persistense.dao.ArticleRepository;
+import com.elseff.project.persistense.dao.CommentRepository;
 import com.elseff.project.persistense.dao.RoleRepository;
+import com.elseff.project.persistense.dao.TagRepository;
 import com.elseff.project.persistense.dao.UserRepository;
 import com.elseff.project.security.SecurityUtils;
 import com.elseff.project.web.api.modules.article.dto.ArticleCreationRequest;
 import com.elseff.project.web.api.modules.article.dto.ArticleUpdateRequest;
 import com.elseff.project.web.api.modules.article.dto.mapper.ArticleDtoMapper;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeEvent;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeType;
+import com.elseff.project.web.api.modules.article.event.ArticleDescriptionChangeEvent;
 import com.elseff.project.web.api.modules.article.exception.ArticleNotFoundException;
 import com.elseff.project.web.api.modules.article.exception.SomeoneElseArticleException;
+import com.elseff.project.web.api.modules.article.related.MinHash;
+import com.elseff.project.web.api.modules.article.tag.ArticleTagIndex;
+import com.elseff.project.web.api.modules.article.tag.TagMatchMode;
 import com.elseff.project.web.api.modules.auth.service.AuthService;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class ArticleService {
 
     ArticleRepository articleRepository;
     RoleRepository roleRepository;
     UserRepository userRepository;
+    TagRepository tagRepository;
+    CommentRepository commentRepository;
+    ArticleMinHashRepository articleMinHashRepository;
 
     ArticleDtoMapper articleDtoMapper;
     SecurityUtils securityUtils;
 
+    ArticleTagIndex articleTagIndex;
+
+    ApplicationEventPublisher eventPublisher;
+
     public List<ArticleEntity> findAll() {
-        return articleRepository.findAll();
+        return withTags(articleRepository.findAll());
+    }
+
+    public List<ArticleEntity> findAllWithDescription() {
+        return withTags(articleRepository.findAllWithDescription());
     }
 
     public List<ArticleEntity> findAllByAuthorId(Long authorId) {
-        return articleRepository.findAllByAuthorId(authorId);
+        return withTags(articleRepository.findAllByAuthorId(authorId));
+    }
+
+    public List<ArticleEntity> findAllWithDescriptionByAuthorId(Long authorId) {
+        return withTags(articleRepository.findAllWithDescriptionByAuthorId(authorId));
+    }
+
+    public List<ArticleEntity> findAllByTags(Set<String> tags, TagMatchMode mode, int page, int size) {
+        List<Long> ids = articleTagIndex.findIds(ArticleTextUtils.normalizeTags(tags), mode, (long) page * size, size);
+
+        return findAllByIdIn(ids);
+    }
+
+    /**
+     * Articles in the order of the given ids, ids of missing articles are skipped
+     */
+    public List<ArticleEntity> findAllByIdIn(List<Long> ids) {
+        if (ids.isEmpty())
+            return List.of();
+
+        Map<Long, ArticleEntity> articles = withTags(articleRepository.findAllByIdIn(ids)).stream()
+                .collect(Collectors.toMap(ArticleEntity::getId, Function.identity()));
+
+        return ids.stream()
+                .map(articles::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Articles with the description in the order of the given ids, ids of missing articles are skipped
+     */
+    public List<ArticleEntity> findAllWithDescriptionByIdIn(List<Long> ids) {
+        if (ids.isEmpty())
+            return List.of();
+
+        Map<Long, ArticleEntity> articles = withTags(articleRepository.findAllWithDescriptionByIdIn(ids)).stream()
+                .collect(Collectors.toMap(ArticleEntity::getId, Function.identity()));
+
+        return ids.stream()
+                .map(articles::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     public ArticleEntity findById(Long id) {
-        return articleRepository.findById(id)
+        ArticleEntity article = articleRepository.findWithDescriptionById(id)
                 .orElseThrow(() ->
                         new ArticleNotFoundException(id));
+        Hibernate.initialize(article.getTags());
+        return article;
     }
 
+    @Transactional
     public void deleteArticleById(Long id) {
         ArticleEntity article = articleRepository.findById(id)
                 .orElseThrow(() -> new ArticleNotFoundException(id));
 
         UserDetails currentUser = Objects.requireNonNull(AuthService.getCurrentUser());
         boolean currentUserIsAdmin = securityUtils.userIsAdmin(currentUser);
+        // read before the article is removed
+        Set<String> tags = tagNames(article.getTags());
 
         if (currentUserIsAdmin) {
             log.info("delete article {} by admin {}", id, currentUser.getUsername());
+            commentRepository.deleteAllByArticleId(id);
             articleRepository.deleteById(id);
         } else {
             if (article.getAuthor().getEmail().equals(currentUser.getUsername())) {
                 log.info("delete article {} by user {}", id, currentUser.getUsername());
+                commentRepository.deleteAllByArticleId(id);
                 articleRepository.deleteById(id);
             } else throw new SomeoneElseArticleException();
         }
+        eventPublisher.publishEvent(new ArticleChangeEvent(ArticleChangeType.DELETED,
+                article.getId(), article.getAuthor().getId(), article.getTitle(), tags, tags));
     }
 
+    @Transactional
     public ArticleEntity addArticle(ArticleCreationRequest articleCreationRequest) {
         UserDetails currentUser = Objects.requireNonNull(AuthService.getCurrentUser());
 
@@ -76,15 +159,20 @@ public class ArticleService {
 
         ArticleEntity article = ArticleEntity.builder()
                 .title(articleCreationRequest.getTitle())
-                .description(articleCreationRequest.getDescription())
                 .author(author)
                 .createdAt(Timestamp.from(Instant.now()))
                 .build();
+        setDescription(article, articleCreationRequest.getDescription());
+        article.setTags(resolveTags(articleCreationRequest.getTags()));
         article = articleRepository.save(article);
+        saveSignature(article.getId(), article.getTitle(), articleCreationRequest.getDescription());
 
+        eventPublisher.publishEvent(new ArticleChangeEvent(ArticleChangeType.CREATED,
+                article.getId(), author.getId(), article.getTitle(), tagNames(article.getTags()), Set.of()));
         return article;
     }
 
+    @Transactional
     public ArticleEntity updateArticle(Long id, ArticleUpdateRequest updateRequest) {
         ArticleEntity article = articleRepository.findById(id)
                 .orElseThrow(() -> new ArticleNotFoundException(id));
@@ -92,19 +180,87 @@ public class ArticleService {
         UserDetails currentUser = Objects.requireNonNull(AuthService.getCurrentUser());
 
         if (article.getAuthor().getEmail().equals(currentUser.getUsername())) {
+            Set<String> previousTags = tagNames(article.getTags());
             if (updateRequest.getTitle() != null)
                 article.setTitle(updateRequest.getTitle());
             if (updateRequest.getDescription() != null)
-                article.setDescription(updateRequest.getDescription());
+                setDescription(article, updateRequest.getDescription());
+            if (updateRequest.getTags() != null)
+                article.setTags(resolveTags(updateRequest.getTags()));
             if (article.getEdited() == false)
                 article.setEdited(true);
 
             article.setUpdatedAt(Timestamp.from(Instant.now()));
             article = articleRepository.save(article);
+            // description is lazy, the response is mapped after the session is closed
+            String description = article.getDescription();
+            if (updateRequest.getTitle() != null || updateRequest.getDescription() != null)
+                saveSignature(article.getId(), article.getTitle(), description);
             log.info("updated article {} by user {}", article.getId(), currentUser.getUsername());
 
+            publishChange(ArticleChangeType.UPDATED, article, previousTags);
+
             return article;
         } else throw new SomeoneElseArticleException();
     }
 
+    /**
+     * Saves the MinHash signature of the article, or drops the old one if the text has no words
+     */
+    private void saveSignature(Long articleId, String title, String description) {
+        int[] signature = MinHash.signature(title, description);
+        if (signature == null)
+            articleMinHashRepository.deleteById(articleId);
+        else
+            articleMinHashRepository.save(articleId, signature);
+    }
+
+    private void setDescription(ArticleEntity article, String description) {
+        int wordCount = ArticleTextUtils.wordCount(description);
+
+        article.setDescription(description);
+        article.setExcerpt(ArticleTextUtils.excerpt(description));
+        article.setWordCount(wordCount);
+        article.setReadingTime(ArticleTextUtils.readingTime(wordCount));
+
+        eventPublisher.publishEvent(new ArticleDescriptionChangeEvent(description));
+    }
+
+    private Set<TagEntity> resolveTags(Set<String> names) {
+        if (names == null || names.isEmpty())
+            return new HashSet<>();
+
+        Set<String> normalized = ArticleTextUtils.normalizeTags(names);
+        Set<TagEntity> tags = new HashSet<>(tagRepository.findAllByNameIn(normalized));
+        if (tags.size() < normalized.size()) {
+            Set<String> existing = tagNames(tags);
+            normalized.stream()
+                    .filter(name -> !existing.contains(name))
+                    .forEach(tagRepository::insertIfAbsent);
+            tags = new HashSet<>(tagRepository.findAllByNameIn(normalized));
+        }
+        return tags;
+    }
+
+    private void publishChange(ArticleChangeType type, ArticleEntity article, Set<String> previousTags) {
+        eventPublisher.publishEvent(new ArticleChangeEvent(type, article.getId(), article.getAuthor().getId(),
+                article.getTitle(), tagNames(article.getTags()), previousTags));
+    }
+
+    /**
+     * Tags are lazy and the articles are mapped after the session is closed. The first article loads
+     * the tags of all of them, the others are already initialized.
+     */
+    private static List<ArticleEntity> withTags(List<ArticleEntity> articles) {
+        articles.forEach(article -> Hibernate.initialize(article.getTags()));
+        return articles;
+    }
+
+    private static Set<String> tagNames(Set<TagEntity> tags) {
+        if (tags == null)
+            return Set.of();
+        return tags.stream()
+                .map(TagEntity::getName)
+                .collect(Collectors.toSet());
+    }
 }
@@ -0,0 +1,337 @@
+package com.elseff.project.web.api.modules.article.stream;
+
+import com.elseff.project.cache.CacheInvalidationEvent;
+import com.elseff.project.web.api.modules.article.dto.ArticleChangeDto;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes committed article changes to subscribers as server-sent events.
+ * <p>
+ * Every subscriber gets a bounded buffer, drained by a small pool of sender threads. A subscriber whose buffer
+ * is full is dropped instead of holding back the others or growing the heap; it reconnects with
+ * {@code Last-Event-ID} and resumes from a short log of recent changes. Event ids are {@code <epoch>-<sequence>}.
+ * The epoch changes on every start and whenever changes may have been missed, so an id that can't be resumed
+ * from is answered with a {@code reset} event, after which the client reloads the articles.
+ * <p>
+ * Changes made on other nodes arrive through the cache invalidation bus when it is enabled.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ArticleChangeStream {
+
+    static final String RESET = "reset";
+
+    final ObjectMapper objectMapper;
+
+    final int logSize;
+
+    final int bufferSize;
+
+    final long timeout;
+
+    final ExecutorService senders;
+
+    final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    final Counter dropped;
+
+    /**
+     * Recent changes, oldest first. Guarded by this, like the epoch and the sequence
+     */
+    final Deque<Change> changes = new ArrayDeque<>();
+
+    String epoch = newEpoch();
+
+    long sequence;
+
+    public ArticleChangeStream(ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               @Value("${articles.stream.log-size:1000}") int logSize,
+                               @Value("${articles.stream.buffer-size:256}") int bufferSize,
+                               @Value("${articles.stream.senders:4}") int senders,
+                               @Value("${articles.stream.timeout:PT30M}") Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.logSize = logSize;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout.toMillis();
+
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senders, task -> {
+            Thread thread = new Thread(task, "article-stream-sender-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.dropped = Counter.builder("articles.stream.dropped")
+                .description("Subscribers dropped because they didn't keep up")
+                .register(meterRegistry);
+        Gauge.builder("articles.stream.subscribers", subscribers, Set::size)
+                .description("Subscribers of the article change stream")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param authorId    only changes of articles by this author, all changes if null
+     * @param lastEventId id of the last event the client has seen when it reconnects, or null
+     */
+    public SseEmitter subscribe(Long authorId, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout);
+        Subscriber subscriber = new Subscriber(emitter, authorId);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+
+        synchronized (this) {
+            if (lastEventId != null && !replay(subscriber, lastEventId))
+                subscriber.buffer.offer(Change.reset(epoch + "-" + sequence));
+            subscribers.add(subscriber);
+        }
+        schedule(subscriber);
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onArticleChange(ArticleChangeEvent event) {
+        publish(event);
+    }
+
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (event.isAll())
+            reset();
+        else if (event.getArticleChange() != null)
+            publish(event.getArticleChange());
+    }
+
+    /**
+     * Keeps idle connections open through proxies and finds clients that went away
+     */
+    @Scheduled(fixedDelayString = "${articles.stream.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.buffer.isEmpty() && subscriber.buffer.offer(Change.HEARTBEAT))
+                schedule(subscriber);
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void completeAll() {
+        subscribers.forEach(this::drop);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    private void publish(ArticleChangeEvent event) {
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(ArticleChangeDto.builder()
+                    .id(event.getArticleId())
+                    .type(event.getType())
+                    .authorId(event.getAuthorId())
+                    .title(event.getTitle())
+                    .tags(event.getTags())
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("could not serialize " + event, e);
+        }
+
+        List<Subscriber> ready = new ArrayList<>();
+        synchronized (this) {
+            long next = ++sequence;
+            Change change = new Change(epoch + "-" + next, next,
+                    event.getType().name().toLowerCase(Locale.ROOT), data, event.getAuthorId());
+            changes.addLast(change);
+            if (changes.size() > logSize)
+                changes.removeFirst();
+
+            for (Subscriber subscriber : subscribers) {
+                if (!change.isFor(subscriber))
+                    continue;
+                if (subscriber.buffer.offer(change))
+                    ready.add(subscriber);
+                else
+                    drop(subscriber);
+            }
+        }
+        ready.forEach(this::schedule);
+    }
+
+    /**
+     * Changes may have been missed, no id handed out so far can be resumed from
+     */
+    private void reset() {
+        synchronized (this) {
+            changes.clear();
+            epoch = newEpoch();
+            sequence = 0;
+            Change reset = Change.reset(epoch + "-" + sequence);
+            for (Subscriber subscriber : subscribers) {
+                subscriber.buffer.clear();
+                subscriber.buffer.offer(reset);
+            }
+        }
+        subscribers.forEach(this::schedule);
+    }
+
+    /**
+     * Buffers the changes after the given event id, false if they are not all in the log or don't fit the buffer
+     */
+    private boolean replay(Subscriber subscriber, String lastEventId) {
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !lastEventId.substring(0, separator).equals(epoch))
+            return false;
+        long lastSequence;
+        try {
+            lastSequence = Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        long oldest = changes.isEmpty() ? sequence + 1 : changes.getFirst().sequence;
+        if (lastSequence < oldest - 1 || lastSequence > sequence)
+            return false;
+
+        for (Change change : changes) {
+            if (change.sequence > lastSequence && change.isFor(subscriber) && !subscriber.buffer.offer(change)) {
+                subscriber.buffer.clear();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void drop(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.dropped = true;
+            dropped.increment();
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true))
+            senders.execute(() -> drain(subscriber));
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Change change;
+            while (!subscriber.dropped && (change = subscriber.buffer.poll()) != null)
+                change.sendTo(subscriber.emitter);
+            if (subscriber.dropped) {
+                subscriber.buffer.clear();
+                subscriber.emitter.complete();
+                return;
+            }
+        } catch (IOException | IllegalStateException e) {
+            // the client went away or the emitter has completed meanwhile
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        // a change buffered after the last poll but before the flag was cleared
+        if (!subscriber.buffer.isEmpty())
+            schedule(subscriber);
+    }
+
+    private static String newEpoch() {
+        return UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private class Subscriber {
+
+        final SseEmitter emitter;
+
+        final Long authorId;
+
+        final Queue<Change> buffer = new ArrayBlockingQueue<>(bufferSize);
+
+        final AtomicBoolean scheduled = new AtomicBoolean();
+
+        volatile boolean dropped;
+
+        Subscriber(SseEmitter emitter, Long authorId) {
+            this.emitter = emitter;
+            this.authorId = authorId;
+        }
+    }
+
+    private static class Change {
+
+        static final Change HEARTBEAT = new Change(null, 0, null, null, null);
+
+        final String id;
+
+        final long sequence;
+
+        final String name;
+
+        /**
+         * The change serialized once for all subscribers
+         */
+        final String data;
+
+        final Long authorId;
+
+        Change(String id, long sequence, String name, String data, Long authorId) {
+            this.id = id;
+            this.sequence = sequence;
+            this.name = name;
+            this.data = data;
+            this.authorId = authorId;
+        }
+
+        static Change reset(String id) {
+            return new Change(id, 0, RESET, "{}", null);
+        }
+
+        boolean isFor(Subscriber subscriber) {
+            return subscriber.authorId == null || subscriber.authorId.equals(authorId);
+        }
+
+        void sendTo(SseEmitter emitter) throws IOException {
+            if (this == HEARTBEAT)
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            else
+                emitter.send(SseEmitter.event().id(id).name(name).data(data));
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.elseff.project.web.api.modules.article.sync;
+
+import com.elseff.project.web.api.modules.article.dto.ArticleChangesDto;
+import com.elseff.project.web.api.modules.article.dto.ArticleTombstoneDto;
+import com.elseff.project.web.api.modules.article.dto.mapper.ArticleDtoMapper;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeEvent;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeType;
+import com.elseff.project.web.api.modules.article.service.ArticleService;
+import com.elseff.project.web.api.modules.user.event.UserChangeEvent;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Log of article changes behind the delta sync, in table {@code article_change}.
+ * <p>
+ * A client keeps the sequence of the last change it has seen as its cursor. Sequences have to become visible
+ * in order, or a client could move its cursor past a change that commits later with a lower sequence:
+ * changes are therefore logged right before commit, under a transaction-level advisory lock held until commit.
+ * Changes older than {@code articles.changes.retention} are pruned, a client whose cursor is older is told
+ * to reload all articles.
+ * <p>
+ * Only changes of the content are logged, not views or comment counts. A change of a profile is logged as an update
+ * of every article of the author, since the articles show the name of their author. When a user is deleted
+ * the tombstones of their articles are logged after those updates and win over them.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ArticleChangeLog {
+
+    JdbcTemplate jdbcTemplate;
+
+    TransactionTemplate transactionTemplate;
+
+    ArticleService articleService;
+
+    ArticleDtoMapper articleDtoMapper;
+
+    Duration retention;
+
+    public ArticleChangeLog(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            ArticleService articleService,
+                            ArticleDtoMapper articleDtoMapper,
+                            @Value("${articles.changes.retention:P30D}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.articleService = articleService;
+        this.articleDtoMapper = articleDtoMapper;
+        this.retention = retention;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onArticleChange(ArticleChangeEvent event) {
+        lock();
+        jdbcTemplate.update("INSERT INTO article_change (article_id, type) VALUES (?, ?)",
+                event.getArticleId(), event.getType().name());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onUserChange(UserChangeEvent event) {
+        lock();
+        jdbcTemplate.update("INSERT INTO article_change (article_id, type) " +
+                        "SELECT id, ? FROM article WHERE author_id = ? ORDER BY id",
+                ArticleChangeType.UPDATED.name(), event.getUserId());
+    }
+
+    /**
+     * Articles changed after the cursor, oldest change first, and tombstones of the deleted ones.
+     * Without a cursor, or with one that can't be served, only the current cursor is returned along with
+     * the resync signal.
+     */
+    @Transactional(readOnly = true)
+    public ArticleChangesDto findChanges(Long since, int limit, boolean full) {
+        long[] bounds = jdbcTemplate.queryForObject("SELECT pruned_seq, " +
+                        "(SELECT COALESCE(MAX(seq), 0) FROM article_change) FROM article_change_retention",
+                (row, rowNumber) -> new long[]{row.getLong(1), Math.max(row.getLong(1), row.getLong(2))});
+        long pruned = bounds[0];
+        long latest = bounds[1];
+
+        // a cursor ahead of the latest change comes from a replica that is ahead of this one, nothing to return yet
+        if (since == null || since < pruned) {
+            return ArticleChangesDto.builder()
+                    .cursor(latest)
+                    .resyncRequired(true)
+                    .articles(List.of())
+                    .deleted(List.of())
+                    .build();
+        }
+
+        // the last change of every article in the page, by the order of those changes
+        Map<Long, Change> changes = new LinkedHashMap<>();
+        long[] cursor = {since};
+        int[] rows = {0};
+        jdbcTemplate.query("SELECT seq, article_id, type, changed_at FROM article_change " +
+                        "WHERE seq > ? ORDER BY seq LIMIT ?",
+                (RowCallbackHandler) row -> {
+                    long articleId = row.getLong("article_id");
+                    changes.remove(articleId);
+                    changes.put(articleId, new Change(ArticleChangeType.valueOf(row.getString("type")),
+                            row.getTimestamp("changed_at")));
+                    cursor[0] = row.getLong("seq");
+                    rows[0]++;
+                }, since, limit);
+
+        List<Long> changedIds = new ArrayList<>();
+        List<ArticleTombstoneDto> deleted = new ArrayList<>();
+        changes.forEach((articleId, change) -> {
+            if (change.type == ArticleChangeType.DELETED)
+                deleted.add(new ArticleTombstoneDto(articleId, change.changedAt));
+            else
+                changedIds.add(articleId);
+        });
+
+        return ArticleChangesDto.builder()
+                .cursor(cursor[0])
+                .hasMore(rows[0] == limit)
+                // an article deleted meanwhile is skipped, its tombstone follows with the next sync
+                .articles(full
+                        ? articleDtoMapper.mapListArticleEntityToDto(articleService.findAllWithDescriptionByIdIn(changedIds))
+                        : articleDtoMapper.mapListArticleEntityToPreviewDto(articleService.findAllByIdIn(changedIds)))
+                .deleted(deleted)
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${articles.changes.prune-interval:PT1H}")
+    public void prune() {
+        Integer removed = transactionTemplate.execute(status -> {
+            Long pruned = jdbcTemplate.queryForObject("SELECT MAX(seq) FROM article_change " +
+                    "WHERE changed_at < now() - make_interval(secs => ?)", Long.class, retention.toSeconds());
+            if (pruned == null)
+                return 0;
+            jdbcTemplate.update("UPDATE article_change_retention SET pruned_seq = GREATEST(pruned_seq, ?) WHERE id = 1",
+                    pruned);
+            return jdbcTemplate.update("DELETE FROM article_change WHERE seq <= ?", pruned);
+        });
+        if (removed != null && removed > 0)
+            log.info("pruned {} article changes older than {}", removed, retention);
+    }
+
+    /**
+     * Held until commit, so that the sequences of the changes become visible in order
+     */
+    private void lock() {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtext('article_change'))", (RowCallbackHandler) row -> {
+        });
+    }
+
+    private static class Change {
+
+        final ArticleChangeType type;
+
+        final Timestamp changedAt;
+
+        Change(ArticleChangeType type, Timestamp changedAt) {
+            this.type = type;
+            this.changedAt = changedAt;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.elseff.project.web.api.modules.article.tag;
+
+import com.elseff.project.cache.CacheInvalidationEvent;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeEvent;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeType;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of article ids per tag, kept as compressed bitmaps.
+ * <p>
+ * Bitmaps are never modified after they are published: writers replace the bitmap of a tag with a changed copy,
+ * so readers combine them without locking.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ArticleTagIndex {
+
+    final JdbcTemplate jdbcTemplate;
+
+    volatile Map<String, Roaring64NavigableMap> bitmaps = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        Map<String, Roaring64NavigableMap> rebuilt = new ConcurrentHashMap<>();
+
+        jdbcTemplate.query("SELECT t.name, at.article_id FROM article_tag at JOIN tag t ON t.id = at.tag_id",
+                (RowCallbackHandler) row -> rebuilt
+                        .computeIfAbsent(row.getString(1), tag -> new Roaring64NavigableMap())
+                        .addLong(row.getLong(2)));
+        rebuilt.values().forEach(Roaring64NavigableMap::runOptimize);
+
+        bitmaps = rebuilt;
+        log.info("tag index has been built for {} tags", rebuilt.size());
+    }
+
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (event.isAll())
+            rebuild();
+        else if (event.getArticleChange() != null)
+            onArticleChange(event.getArticleChange());
+    }
+
+    /**
+     * Only the bitmaps of the tags the article had before or has after the change are looked at
+     */
+    @TransactionalEventListener
+    public synchronized void onArticleChange(ArticleChangeEvent event) {
+        long articleId = event.getArticleId();
+        boolean deleted = event.getType() == ArticleChangeType.DELETED;
+        Set<String> tags = deleted || event.getTags() == null ? Set.of() : event.getTags();
+
+        Set<String> removed = new HashSet<>();
+        if (event.getPreviousTags() != null)
+            removed.addAll(event.getPreviousTags());
+        if (deleted && event.getTags() != null)
+            removed.addAll(event.getTags());
+        removed.removeAll(tags);
+
+        for (String tag : removed) {
+            Roaring64NavigableMap bitmap = bitmaps.get(tag);
+            if (bitmap != null && bitmap.contains(articleId)) {
+                Roaring64NavigableMap changed = copyOf(bitmap);
+                changed.removeLong(articleId);
+                if (changed.isEmpty())
+                    bitmaps.remove(tag);
+                else
+                    bitmaps.put(tag, changed);
+            }
+        }
+        for (String tag : tags) {
+            Roaring64NavigableMap bitmap = bitmaps.get(tag);
+            if (bitmap == null || !bitmap.contains(articleId)) {
+                Roaring64NavigableMap changed = bitmap == null ? new Roaring64NavigableMap() : copyOf(bitmap);
+                changed.addLong(articleId);
+                bitmaps.put(tag, changed);
+            }
+        }
+    }
+
+    /**
+     * Ids of the matching articles, newest first
+     */
+    public List<Long> findIds(Set<String> tags, TagMatchMode mode, long offset, int limit) {
+        Roaring64NavigableMap matched = match(tags, mode);
+
+        List<Long> ids = new ArrayList<>(limit);
+        LongIterator iterator = matched.getReverseLongIterator();
+        for (long skipped = 0; skipped < offset && iterator.hasNext(); skipped++)
+            iterator.next();
+        while (ids.size() < limit && iterator.hasNext())
+            ids.add(iterator.next());
+
+        return ids;
+    }
+
+    private Roaring64NavigableMap match(Set<String> tags, TagMatchMode mode) {
+        Map<String, Roaring64NavigableMap> snapshot = bitmaps;
+        List<Roaring64NavigableMap> matched = new ArrayList<>(tags.size());
+        for (String tag : tags) {
+            Roaring64NavigableMap bitmap = snapshot.get(tag);
+            if (bitmap != null)
+                matched.add(bitmap);
+            else if (mode == TagMatchMode.ALL)
+                return new Roaring64NavigableMap();
+        }
+        if (matched.isEmpty())
+            return new Roaring64NavigableMap();
+
+        // intersecting from the smallest bitmap keeps the intermediate results small
+        if (mode == TagMatchMode.ALL)
+            matched.sort(Comparator.comparingLong(Roaring64NavigableMap::getLongCardinality));
+
+        Roaring64NavigableMap result = copyOf(matched.get(0));
+        for (int i = 1; i < matched.size(); i++) {
+            if (mode == TagMatchMode.ALL)
+                result.and(matched.get(i));
+            else
+                result.or(matched.get(i));
+        }
+        return result;
+    }
+
+    private static Roaring64NavigableMap copyOf(Roaring64NavigableMap bitmap) {
+        Roaring64NavigableMap copy = new Roaring64NavigableMap();
+        copy.or(bitmap);
+        return copy;
+    }
+}
@@ -0,0 +1,12 @@
+package com.elseff.project.web.api.modules.article.tag;
+
+public enum TagMatchMode {
+    /**
+     * Articles having every requested tag
+     */
+    ALL,
+    /**
+     * Articles having at least one of the requested tags
+     */
+    ANY
+}
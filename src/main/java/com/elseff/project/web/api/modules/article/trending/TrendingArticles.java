@@ -0,0 +1,227 @@
+package com.elseff.project.web.api.modules.article.trending;
+
+import com.elseff.project.cache.CacheInvalidationEvent;
+import com.elseff.project.web.api.modules.article.dto.ArticleDto;
+import com.elseff.project.web.api.modules.article.dto.mapper.ArticleDtoMapper;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeEvent;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeType;
+import com.elseff.project.web.api.modules.article.service.ArticleService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Articles with the most reads, where a read loses half of its weight every {@code articles.trending.half-life}.
+ * <p>
+ * Uses forward decay: a read at time t adds {@code e^(λ(t - landmark))} to the score of the article, so scores
+ * never have to be decayed, newer reads simply weigh more. A read is a single add to a {@link DoubleAdder}.
+ * <p>
+ * Scores only grow, so an article can only get into the top by a read that lifts it above the lowest score of the
+ * last top. Such reads add the article to a small candidate set, and every {@code articles.trending.refresh-interval}
+ * the top is selected from the candidates alone. It is mapped and published as an immutable snapshot, which is all
+ * the endpoint returns, and loaded from the database only when the ranking or one of its articles changed.
+ * Only the best {@code articles.trending.max-tracked} articles are kept between refreshes.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class TrendingArticles {
+
+    /**
+     * Scores are moved to a new landmark before the weights get close to the range of double
+     */
+    static final double MAX_EXPONENT = 30;
+
+    final ArticleService articleService;
+
+    final ArticleDtoMapper articleDtoMapper;
+
+    final double lambda;
+
+    final int size;
+
+    final int maxTracked;
+
+    volatile Scores scores = new Scores(System.currentTimeMillis(), new ConcurrentHashMap<>());
+
+    /**
+     * Articles in the last top and articles whose score got above {@link #threshold} since
+     */
+    final Set<Long> candidates = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Lowest score of the last top, zero while it has fewer than {@code size} articles
+     */
+    volatile double threshold;
+
+    /**
+     * Set when an article leaves the top other than by being outscored, the next refresh looks at all scores
+     */
+    volatile boolean rescan;
+
+    volatile List<Long> snapshotIds = List.of();
+
+    volatile List<ArticleDto> snapshot = List.of();
+
+    public TrendingArticles(ArticleService articleService,
+                            ArticleDtoMapper articleDtoMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${articles.trending.half-life:PT1H}") Duration halfLife,
+                            @Value("${articles.trending.size:50}") int size,
+                            @Value("${articles.trending.max-tracked:10000}") int maxTracked) {
+        this.articleService = articleService;
+        this.articleDtoMapper = articleDtoMapper;
+        this.lambda = Math.log(2) / halfLife.toMillis();
+        this.size = size;
+        this.maxTracked = maxTracked;
+
+        Gauge.builder("articles.trending.tracked", this, trending -> trending.scores.byArticle.size())
+                .description("Articles with a trending score")
+                .register(meterRegistry);
+    }
+
+    public void recordRead(Long articleId) {
+        Scores scores = this.scores;
+        double weight = Math.exp(lambda * (System.currentTimeMillis() - scores.landmark));
+
+        DoubleAdder score = scores.byArticle.get(articleId);
+        if (score == null)
+            score = scores.byArticle.computeIfAbsent(articleId, id -> new DoubleAdder());
+        score.add(weight);
+
+        if (score.sum() > threshold && !candidates.contains(articleId))
+            candidates.add(articleId);
+    }
+
+    /**
+     * Trending articles, best first
+     */
+    public List<ArticleDto> getSnapshot() {
+        return snapshot;
+    }
+
+    @Scheduled(fixedDelayString = "${articles.trending.refresh-interval:PT5S}")
+    public void refresh() {
+        moveLandmarkIfNeeded();
+        Map<Long, DoubleAdder> byArticle = scores.byArticle;
+        if (byArticle.size() > maxTracked)
+            evictLowest(byArticle);
+
+        boolean fullScan = rescan;
+        rescan = false;
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Long articleId : fullScan ? byArticle.keySet() : candidates) {
+            DoubleAdder score = byArticle.get(articleId);
+            if (score == null)
+                continue;
+            top.offer(Map.entry(articleId, score.sum()));
+            if (top.size() > size)
+                top.poll();
+        }
+
+        double lowest = top.size() < size ? 0 : top.peek().getValue();
+        threshold = lowest;
+        Set<Long> topIds = top.stream().map(Map.Entry::getKey).collect(Collectors.toSet());
+        candidates.addAll(topIds);
+        candidates.removeIf(articleId -> {
+            DoubleAdder score = byArticle.get(articleId);
+            return score == null || !topIds.contains(articleId) && score.sum() <= lowest;
+        });
+
+        List<Long> ids = top.stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        if (ids.equals(snapshotIds))
+            return;
+
+        snapshot = List.copyOf(articleDtoMapper.mapListArticleEntityToPreviewDto(articleService.findAllByIdIn(ids)));
+        snapshotIds = ids;
+    }
+
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (event.getArticleChange() != null)
+            onArticleChange(event.getArticleChange());
+    }
+
+    @TransactionalEventListener
+    public void onArticleChange(ArticleChangeEvent event) {
+        if (event.getType() == ArticleChangeType.UPDATED && snapshotIds.contains(event.getArticleId()))
+            snapshotIds = List.of();
+        if (event.getType() != ArticleChangeType.DELETED)
+            return;
+
+        scores.byArticle.remove(event.getArticleId());
+        candidates.remove(event.getArticleId());
+        rescan = true;
+        snapshot = snapshot.stream()
+                .filter(article -> !article.getId().equals(event.getArticleId()))
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * Replaces the scores with ones relative to now. Reads that still go to the old scores are lost,
+     * which is a handful of reads every few days.
+     */
+    private void moveLandmarkIfNeeded() {
+        Scores old = scores;
+        long now = System.currentTimeMillis();
+        double exponent = lambda * (now - old.landmark);
+        if (exponent < MAX_EXPONENT)
+            return;
+
+        double factor = Math.exp(-exponent);
+        // lowered before the scores, a read in between may add a candidate too many but never miss one
+        threshold *= factor;
+        Map<Long, DoubleAdder> byArticle = new ConcurrentHashMap<>();
+        old.byArticle.forEach((articleId, score) -> {
+            DoubleAdder moved = new DoubleAdder();
+            moved.add(score.sum() * factor);
+            byArticle.put(articleId, moved);
+        });
+        scores = new Scores(now, byArticle);
+        log.debug("trending scores have been moved to a new landmark");
+    }
+
+    /**
+     * Sorts all scores, but only runs when more than {@code max-tracked} articles have been read
+     */
+    private void evictLowest(Map<Long, DoubleAdder> byArticle) {
+        List<Map.Entry<Long, Double>> entries = new ArrayList<>(byArticle.size());
+        byArticle.forEach((articleId, score) -> entries.add(Map.entry(articleId, score.sum())));
+        entries.sort(Map.Entry.comparingByValue());
+
+        for (Map.Entry<Long, Double> entry : entries.subList(0, Math.max(0, entries.size() - maxTracked)))
+            byArticle.remove(entry.getKey());
+    }
+
+    private static final class Scores {
+
+        final long landmark;
+
+        final Map<Long, DoubleAdder> byArticle;
+
+        Scores(long landmark, Map<Long, DoubleAdder> byArticle) {
+            this.landmark = landmark;
+            this.byArticle = byArticle;
+        }
+    }
+}
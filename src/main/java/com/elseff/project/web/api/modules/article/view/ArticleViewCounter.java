@@ -0,0 +1,115 @@
+package com.elseff.project.web.api.modules.article.view;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts article views in memory and writes them behind in batches.
+ * <p>
+ * A view only increments a {@link LongAdder}, so concurrent readers of a hot article neither contend on a lock
+ * nor wait for the row lock of an update. Every {@code articles.views.flush-interval} the accumulated views are
+ * added to {@code article.views} in one batch, and once more when the application shuts down gracefully,
+ * so a crash loses at most one interval of views. Counters idle for a whole interval are dropped;
+ * a view racing with that can be lost as well.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ArticleViewCounter {
+
+    Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    JdbcTemplate jdbcTemplate;
+
+    TransactionTemplate transactionTemplate;
+
+    ApplicationEventPublisher eventPublisher;
+
+    Counter flushedViews;
+
+    public ArticleViewCounter(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              ApplicationEventPublisher eventPublisher,
+                              MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushedViews = Counter.builder("articles.views.flushed")
+                .description("Article views written to the database")
+                .register(meterRegistry);
+
+        meterRegistry.gaugeMapSize("articles.views.pending", List.of(), pending);
+    }
+
+    public void increment(Long articleId) {
+        LongAdder adder = pending.get(articleId);
+        if (adder == null)
+            adder = pending.computeIfAbsent(articleId, id -> new LongAdder());
+        adder.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${articles.views.flush-interval:PT5S}")
+    public void flush() {
+        Set<Long> flushed = writeBehind();
+        if (!flushed.isEmpty())
+            eventPublisher.publishEvent(new ArticleViewsFlushedEvent(flushed));
+    }
+
+    /**
+     * No event is published here, the listeners may already be destroyed
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        writeBehind();
+        log.info("article views have been flushed");
+    }
+
+    /**
+     * @return ids of the articles whose views have been written
+     */
+    private Set<Long> writeBehind() {
+        // sorted, so that concurrent flushes of several nodes lock the rows in the same order
+        Map<Long, Long> views = new TreeMap<>();
+        pending.forEach((articleId, adder) -> {
+            long count = adder.sumThenReset();
+            if (count > 0)
+                views.put(articleId, count);
+            else
+                pending.remove(articleId, adder);
+        });
+        if (views.isEmpty())
+            return Set.of();
+
+        List<Object[]> batch = new ArrayList<>(views.size());
+        views.forEach((articleId, count) -> batch.add(new Object[]{count, articleId}));
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate("UPDATE article SET views = views + ? WHERE id = ?", batch));
+            flushedViews.increment(views.values().stream().mapToLong(Long::longValue).sum());
+        } catch (RuntimeException e) {
+            log.warn("could not flush views of {} articles, will retry", views.size(), e);
+            views.forEach((articleId, count) ->
+                    pending.computeIfAbsent(articleId, id -> new LongAdder()).add(count));
+            return Set.of();
+        }
+        return views.keySet();
+    }
+}
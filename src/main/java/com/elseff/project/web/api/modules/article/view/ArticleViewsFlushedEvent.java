@@ -0,0 +1,21 @@
+package com.elseff.project.web.api.modules.article.view;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+import java.util.Set;
+
+/**
+ * Published by the {@link ArticleViewCounter} after a batch of views has been committed
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ArticleViewsFlushedEvent {
+
+    Set<Long> articleIds;
+}
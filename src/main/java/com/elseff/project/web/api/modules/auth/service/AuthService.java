@@ -11,15 +11,18 @@ import com.elseff.project.web.api.modules.auth.dto.AuthResponse;
 import com.elseff.project.web.api.modules.auth.exception.AuthUserNotFoundException;
 import com.elseff.project.web.api.modules.auth.exception.AuthenticationException;
 import com.elseff.project.web.api.modules.user.dto.mapper.UserDtoMapper;
+import com.elseff.project.web.api.modules.user.event.UserChangeEvent;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
 import java.util.HashSet;
@@ -29,6 +32,7 @@ import java.util.Set;
 @Service
 @Validated
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class AuthService {
 
@@ -42,6 +46,9 @@ public class AuthService {
 
     JwtProvider jwtProvider;
 
+    ApplicationEventPublisher eventPublisher;
+
+    @Transactional
     public AuthResponse register(AuthRegisterRequest authRegisterRequest) {
         if (userRepository.existsByEmail(authRegisterRequest.getEmail())) {
             log.warn("User with email " + authRegisterRequest.getEmail() + " already exists");
@@ -57,6 +64,7 @@ public class AuthService {
         user.setRoles(roles);
 
         UserEntity userFromDb = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangeEvent(userFromDb.getId()));
         log.info("User with email {} has been successfully registered", userFromDb.getEmail());
         String token = jwtProvider.generateToken(user.getEmail());
 
@@ -0,0 +1,128 @@
+package com.elseff.project.web.api.modules.comment.controller;
+
+import com.elseff.project.persistense.CommentEntity;
+import com.elseff.project.web.api.modules.comment.dto.CommentCreationRequest;
+import com.elseff.project.web.api.modules.comment.dto.CommentDto;
+import com.elseff.project.web.api.modules.comment.dto.CommentPageDto;
+import com.elseff.project.web.api.modules.comment.dto.mapper.CommentDtoMapper;
+import com.elseff.project.web.api.modules.comment.service.CommentService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.Pattern;
+import java.util.List;
+
+@Slf4j
+@Validated
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/articles/{articleId}/comments")
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Tag(name = "Comment controller", description = "Comments on articles")
+public class CommentController {
+
+    CommentService commentService;
+
+    CommentDtoMapper commentDtoMapper;
+
+    @Operation(summary = "Get comments of an article",
+            description = "Comments are returned in thread order: every comment is followed by its replies",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            content = @Content(schema = @Schema(implementation = CommentPageDto.class))
+                    ),
+            }
+    )
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    public CommentPageDto findAll(@Parameter(description = "Article id", required = true)
+                                  @PathVariable Long articleId,
+                                  @Parameter(description = "next value of the previous page")
+                                  @RequestParam(required = false, name = "after") @Pattern(regexp = "[0-9.]{0,200}") String after,
+                                  @Parameter(description = "page size")
+                                  @RequestParam(defaultValue = "20", name = "size") @Min(1) @Max(100) int size) {
+        List<CommentEntity> comments = commentService.findAllByArticleId(articleId, after, size);
+
+        return commentDtoMapper.mapListCommentEntityToPageDto(comments, size);
+    }
+
+    @Operation(summary = "Get replies to a comment",
+            description = "Replies on all levels in thread order",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            content = @Content(schema = @Schema(implementation = CommentPageDto.class))
+                    ),
+                    @ApiResponse(responseCode = "404", description = "Comment not found", content = @Content),
+            }
+    )
+    @GetMapping("/{commentId}/replies")
+    @ResponseStatus(HttpStatus.OK)
+    public CommentPageDto findAllReplies(@Parameter(description = "Article id", required = true)
+                                         @PathVariable Long articleId,
+                                         @Parameter(description = "Comment id", required = true)
+                                         @PathVariable Long commentId,
+                                         @Parameter(description = "next value of the previous page")
+                                         @RequestParam(required = false, name = "after") @Pattern(regexp = "[0-9.]{0,200}") String after,
+                                         @Parameter(description = "page size")
+                                         @RequestParam(defaultValue = "20", name = "size") @Min(1) @Max(100) int size) {
+        List<CommentEntity> comments = commentService.findAllReplies(articleId, commentId, after, size);
+
+        return commentDtoMapper.mapListCommentEntityToPageDto(comments, size);
+    }
+
+    @Operation(summary = "Add new comment",
+            description = "Add a comment or a reply to a comment. The author will be the current authenticated user",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "201",
+                            description = "Comment has been successfully added",
+                            content = @Content(schema = @Schema(implementation = CommentDto.class))
+                    ),
+                    @ApiResponse(responseCode = "400", description = "Comment not valid", content = @Content),
+                    @ApiResponse(responseCode = "404", description = "Article or parent comment not found", content = @Content),
+            }
+    )
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public CommentDto addComment(@Parameter(description = "Article id", required = true)
+                                 @PathVariable Long articleId,
+                                 @Parameter(description = "Comment creation request", required = true)
+                                 @RequestBody @Valid CommentCreationRequest commentCreationRequest) {
+        CommentEntity comment = commentService.addComment(articleId, commentCreationRequest);
+
+        return commentDtoMapper.mapCommentEntityToDto(comment);
+    }
+
+    @Operation(summary = "Delete comment by id",
+            description = "Delete the comment together with all replies to it",
+            responses = {
+                    @ApiResponse(responseCode = "204", description = "Comment has been successfully deleted", content = @Content),
+                    @ApiResponse(responseCode = "403", description = "It's someone else's comment", content = @Content),
+                    @ApiResponse(responseCode = "404", description = "Comment not found", content = @Content),
+            }
+    )
+    @DeleteMapping("/{commentId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteComment(@Parameter(description = "Article id", required = true)
+                              @PathVariable Long articleId,
+                              @Parameter(description = "Comment id", required = true)
+                              @PathVariable Long commentId) {
+        commentService.deleteComment(articleId, commentId);
+    }
+}
@@ -0,0 +1,26 @@
+package com.elseff.project.web.api.modules.comment.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
+
+@Setter
+@Getter
+@Builder
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Schema(description = "Comment creation request")
+public class CommentCreationRequest {
+
+    @NotBlank(message = "Content shouldn't be blank")
+    @Size(max = 2000, message = "content should be up to 2000 characters")
+    String content;
+
+    @Schema(description = "id of the comment to reply to, null for a top level comment")
+    Long parentId;
+}
@@ -0,0 +1,30 @@
+package com.elseff.project.web.api.modules.comment.dto;
+
+import com.elseff.project.web.api.modules.user.dto.UserDto;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.sql.Timestamp;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CommentDto {
+
+    Long id;
+
+    Long parentId;
+
+    Integer depth;
+
+    String content;
+
+    Timestamp createdAt;
+
+    UserDto author;
+}
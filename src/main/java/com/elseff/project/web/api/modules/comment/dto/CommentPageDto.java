@@ -0,0 +1,22 @@
+package com.elseff.project.web.api.modules.comment.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Schema(description = "Page of comments in thread order")
+public class CommentPageDto {
+
+    List<CommentDto> comments;
+
+    @Schema(description = "value of the after parameter for the next page, null on the last page")
+    String next;
+}
@@ -0,0 +1,45 @@
+package com.elseff.project.web.api.modules.comment.dto.mapper;
+
+import com.elseff.project.persistense.CommentEntity;
+import com.elseff.project.persistense.UserEntity;
+import com.elseff.project.web.api.modules.comment.dto.CommentDto;
+import com.elseff.project.web.api.modules.comment.dto.CommentPageDto;
+import com.elseff.project.web.api.modules.comment.util.CommentPath;
+import com.elseff.project.web.api.modules.user.dto.UserDto;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+public class CommentDtoMapper {
+
+    public CommentDto mapCommentEntityToDto(CommentEntity comment) {
+        UserEntity author = comment.getAuthor();
+
+        return CommentDto.builder()
+                .id(comment.getId())
+                .parentId(CommentPath.parentId(comment.getPath()))
+                .depth(CommentPath.depth(comment.getPath()))
+                .content(comment.getContent())
+                .createdAt(comment.getCreatedAt())
+                .author(author == null ? null : UserDto.builder()
+                        .id(author.getId())
+                        .firstName(author.getFirstName())
+                        .lastName(author.getLastName())
+                        .build())
+                .build();
+    }
+
+    /**
+     * A full page may be followed by more comments, so it gets a cursor
+     */
+    public CommentPageDto mapListCommentEntityToPageDto(List<CommentEntity> comments, int size) {
+        return CommentPageDto.builder()
+                .comments(comments.stream()
+                        .map(this::mapCommentEntityToDto)
+                        .collect(Collectors.toList()))
+                .next(comments.size() < size ? null : comments.get(comments.size() - 1).getPath())
+                .build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.elseff.project.web.api.modules.comment.event;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Published by the comment service inside the transaction that changes the comment count of an article
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CommentCountChangeEvent {
+
+    Long articleId;
+
+    /**
+     * Number of comments added, negative when comments were deleted
+     */
+    int delta;
+}
@@ -0,0 +1,12 @@
+package com.elseff.project.web.api.modules.comment.exception;
+
+import com.elseff.project.exception.NotFoundException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class CommentNotFoundException extends NotFoundException {
+    public CommentNotFoundException(Long id) {
+        super("could not found comment " + id);
+    }
+}
@@ -0,0 +1,12 @@
+package com.elseff.project.web.api.modules.comment.exception;
+
+import com.elseff.project.web.api.modules.comment.util.CommentPath;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class CommentThreadTooDeepException extends RuntimeException {
+    public CommentThreadTooDeepException() {
+        super("replies can't be nested deeper than " + CommentPath.MAX_DEPTH + " levels");
+    }
+}
@@ -0,0 +1,11 @@
+package com.elseff.project.web.api.modules.comment.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.FORBIDDEN)
+public class SomeoneElseCommentException extends RuntimeException {
+    public SomeoneElseCommentException() {
+        super("It's someone else's comment. You can't delete it");
+    }
+}
@@ -0,0 +1,124 @@
+package com.elseff.project.web.api.modules.comment.service;
+
+import com.elseff.project.persistense.CommentEntity;
+import com.elseff.project.persistense.UserEntity;
+import com.elseff.project.persistense.dao.ArticleRepository;
+import com.elseff.project.persistense.dao.CommentRepository;
+import com.elseff.project.persistense.dao.UserRepository;
+import com.elseff.project.security.SecurityUtils;
+import com.elseff.project.web.api.modules.article.exception.ArticleNotFoundException;
+import com.elseff.project.web.api.modules.auth.service.AuthService;
+import com.elseff.project.web.api.modules.comment.dto.CommentCreationRequest;
+import com.elseff.project.web.api.modules.comment.event.CommentCountChangeEvent;
+import com.elseff.project.web.api.modules.comment.exception.CommentNotFoundException;
+import com.elseff.project.web.api.modules.comment.exception.CommentThreadTooDeepException;
+import com.elseff.project.web.api.modules.comment.exception.SomeoneElseCommentException;
+import com.elseff.project.web.api.modules.comment.util.CommentPath;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Objects;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CommentService {
+
+    CommentRepository commentRepository;
+
+    ArticleRepository articleRepository;
+
+    UserRepository userRepository;
+
+    SecurityUtils securityUtils;
+
+    ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Page of all comments of an article in thread order, starting after the given path
+     */
+    public List<CommentEntity> findAllByArticleId(Long articleId, String after, int size) {
+        return commentRepository.findAllByPathBetween(articleId,
+                after == null ? CommentPath.START : after, CommentPath.END, PageRequest.of(0, size));
+    }
+
+    /**
+     * Page of the replies to a comment, on all levels, in thread order, starting after the given path
+     */
+    public List<CommentEntity> findAllReplies(Long articleId, Long commentId, String after, int size) {
+        CommentEntity comment = commentRepository.findByIdAndArticleId(commentId, articleId)
+                .orElseThrow(() -> new CommentNotFoundException(commentId));
+
+        String path = comment.getPath();
+        return commentRepository.findAllByPathBetween(articleId,
+                after == null || after.compareTo(path) < 0 ? path : after,
+                CommentPath.subtreeEnd(path), PageRequest.of(0, size));
+    }
+
+    @Transactional
+    public CommentEntity addComment(Long articleId, CommentCreationRequest request) {
+        UserDetails currentUser = Objects.requireNonNull(AuthService.getCurrentUser());
+
+        String parentPath = null;
+        if (request.getParentId() != null) {
+            CommentEntity parent = commentRepository.findByIdAndArticleId(request.getParentId(), articleId)
+                    .orElseThrow(() -> new CommentNotFoundException(request.getParentId()));
+            if (CommentPath.depth(parent.getPath()) + 1 >= CommentPath.MAX_DEPTH)
+                throw new CommentThreadTooDeepException();
+            parentPath = parent.getPath();
+        }
+
+        // also tells whether the article exists
+        if (articleRepository.addToCommentCount(articleId, 1) == 0)
+            throw new ArticleNotFoundException(articleId);
+
+        UserEntity author = userRepository.getByEmail(currentUser.getUsername());
+        Long id = commentRepository.nextId();
+
+        CommentEntity comment = CommentEntity.builder()
+                .id(id)
+                .article(articleRepository.getById(articleId))
+                .author(author)
+                .path(CommentPath.of(parentPath, id))
+                .content(request.getContent())
+                .build();
+        comment = commentRepository.save(comment);
+        eventPublisher.publishEvent(new CommentCountChangeEvent(articleId, 1));
+        log.info("added comment {} to article {} by user {}", id, articleId, currentUser.getUsername());
+
+        return comment;
+    }
+
+    /**
+     * Deletes the comment together with all replies to it
+     */
+    @Transactional
+    public void deleteComment(Long articleId, Long commentId) {
+        CommentEntity comment = commentRepository.findByIdAndArticleId(commentId, articleId)
+                .orElseThrow(() -> new CommentNotFoundException(commentId));
+
+        UserDetails currentUser = Objects.requireNonNull(AuthService.getCurrentUser());
+        boolean currentUserIsAdmin = securityUtils.userIsAdmin(currentUser);
+        boolean currentUserIsAuthor = comment.getAuthor() != null
+                && comment.getAuthor().getEmail().equals(currentUser.getUsername());
+
+        if (!currentUserIsAdmin && !currentUserIsAuthor)
+            throw new SomeoneElseCommentException();
+
+        String path = comment.getPath();
+        int deleted = commentRepository.deleteAllByPathBetween(articleId, path, CommentPath.subtreeEnd(path));
+        articleRepository.addToCommentCount(articleId, -deleted);
+        eventPublisher.publishEvent(new CommentCountChangeEvent(articleId, -deleted));
+        log.info("delete comment {} with {} replies by user {}", commentId, deleted - 1, currentUser.getUsername());
+    }
+}
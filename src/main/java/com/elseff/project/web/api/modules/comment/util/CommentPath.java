@@ -0,0 +1,58 @@
+package com.elseff.project.web.api.modules.comment.util;
+
+/**
+ * Materialized paths of comments: ids of the ancestors and of the comment itself, zero-padded to the same width
+ * and joined with dots, e.g. {@code 0000000000000000007.0000000000000000012}.
+ * <p>
+ * Compared byte by byte (the column uses the "C" collation) a comment sorts right before its replies,
+ * and all paths of a subtree fall between {@code path} and {@link #subtreeEnd(String)}.
+ */
+public final class CommentPath {
+
+    public static final int MAX_DEPTH = 10;
+
+    /**
+     * Lower than any path
+     */
+    public static final String START = "";
+
+    /**
+     * Higher than any path: ':' sorts right after the digits
+     */
+    public static final String END = ":";
+
+    private static final int SEGMENT_LENGTH = 19;
+
+    private static final char SEPARATOR = '.';
+
+    private CommentPath() {
+    }
+
+    public static String of(String parentPath, long id) {
+        String segment = String.format("%0" + SEGMENT_LENGTH + "d", id);
+        return parentPath == null ? segment : parentPath + SEPARATOR + segment;
+    }
+
+    /**
+     * Upper bound of the paths of a comment and its replies: '/' sorts right after the separator
+     */
+    public static String subtreeEnd(String path) {
+        return path + '/';
+    }
+
+    /**
+     * Top level comments have depth 0
+     */
+    public static int depth(String path) {
+        return path.length() / (SEGMENT_LENGTH + 1);
+    }
+
+    public static Long parentId(String path) {
+        int depth = depth(path);
+        if (depth == 0)
+            return null;
+
+        int start = (depth - 1) * (SEGMENT_LENGTH + 1);
+        return Long.parseLong(path.substring(start, start + SEGMENT_LENGTH));
+    }
+}
@@ -0,0 +1,61 @@
+package com.elseff.project.web.api.modules.feed.controller;
+
+import com.elseff.project.persistense.ArticleEntity;
+import com.elseff.project.web.api.modules.article.dto.mapper.ArticleDtoMapper;
+import com.elseff.project.web.api.modules.feed.dto.FeedPageDto;
+import com.elseff.project.web.api.modules.feed.service.FeedService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import java.util.List;
+
+@Slf4j
+@Validated
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/feed")
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Tag(name = "Feed controller", description = "Home feed")
+public class FeedController {
+
+    FeedService feedService;
+
+    ArticleDtoMapper articleDtoMapper;
+
+    @Operation(summary = "Get home feed",
+            description = "Articles of the users followed by the current user, newest first. " +
+                    "Articles are returned with an excerpt instead of the description",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            content = @Content(schema = @Schema(implementation = FeedPageDto.class))
+                    ),
+            }
+    )
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    public FeedPageDto getFeed(@Parameter(description = "next value of the previous page")
+                               @RequestParam(required = false, name = "before") Long before,
+                               @Parameter(description = "page size")
+                               @RequestParam(defaultValue = "20", name = "size") @Min(1) @Max(100) int size) {
+        List<ArticleEntity> articles = feedService.findFeed(before, size);
+
+        return FeedPageDto.builder()
+                .articles(articleDtoMapper.mapListArticleEntityToPreviewDto(articles))
+                .next(articles.size() < size ? null : articles.get(articles.size() - 1).getId())
+                .build();
+    }
+}
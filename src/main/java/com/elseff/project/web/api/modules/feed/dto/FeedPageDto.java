@@ -0,0 +1,23 @@
+package com.elseff.project.web.api.modules.feed.dto;
+
+import com.elseff.project.web.api.modules.article.dto.ArticleDto;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Schema(description = "Page of the home feed, newest articles first")
+public class FeedPageDto {
+
+    List<ArticleDto> articles;
+
+    @Schema(description = "value of the before parameter for the next page, null on the last page")
+    Long next;
+}
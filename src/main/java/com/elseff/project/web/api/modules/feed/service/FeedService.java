@@ -0,0 +1,110 @@
+package com.elseff.project.web.api.modules.feed.service;
+
+import com.elseff.project.persistense.ArticleEntity;
+import com.elseff.project.persistense.UserEntity;
+import com.elseff.project.persistense.dao.FeedRepository;
+import com.elseff.project.persistense.dao.FollowRepository;
+import com.elseff.project.persistense.dao.UserRepository;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeEvent;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeType;
+import com.elseff.project.web.api.modules.article.service.ArticleService;
+import com.elseff.project.web.api.modules.auth.service.AuthService;
+import com.elseff.project.web.api.modules.user.event.FollowChangeEvent;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Home feeds: articles of the authors a user follows, newest first.
+ * <p>
+ * A new article is pushed into the feeds of all followers of its author in the transaction that adds it,
+ * so reading a page is a single index range scan. Articles of authors with at least {@code feed.fan-out-threshold}
+ * followers are not pushed, they are merged into the feed when it is read. The decision is recorded per article.
+ * Feeds are cut down to {@code feed.max-length} items when they are written, a background job
+ * trims whatever slipped through.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class FeedService {
+
+    FeedRepository feedRepository;
+
+    FollowRepository followRepository;
+
+    UserRepository userRepository;
+
+    ArticleService articleService;
+
+    int maxLength;
+
+    int fanOutThreshold;
+
+    public FeedService(FeedRepository feedRepository,
+                       FollowRepository followRepository,
+                       UserRepository userRepository,
+                       ArticleService articleService,
+                       @Value("${feed.max-length:1000}") int maxLength,
+                       @Value("${feed.fan-out-threshold:10000}") int fanOutThreshold) {
+        this.feedRepository = feedRepository;
+        this.followRepository = followRepository;
+        this.userRepository = userRepository;
+        this.articleService = articleService;
+        this.maxLength = maxLength;
+        this.fanOutThreshold = fanOutThreshold;
+    }
+
+    /**
+     * Page of the feed of the current user with articles older than {@code before}
+     */
+    public List<ArticleEntity> findFeed(Long before, int size) {
+        UserDetails currentUser = Objects.requireNonNull(AuthService.getCurrentUser());
+        UserEntity user = userRepository.getByEmail(currentUser.getUsername());
+
+        List<Long> ids = feedRepository.findPage(user.getId(), before == null ? Long.MAX_VALUE : before, size);
+
+        return articleService.findAllByIdIn(ids);
+    }
+
+    @EventListener
+    @Transactional
+    public void onArticleChange(ArticleChangeEvent event) {
+        if (event.getType() != ArticleChangeType.CREATED)
+            return;
+
+        if (followRepository.countFollowers(event.getAuthorId()) >= fanOutThreshold) {
+            log.debug("article {} is read into feeds, author {} has too many followers",
+                    event.getArticleId(), event.getAuthorId());
+            return;
+        }
+        int feeds = feedRepository.fanOut(event.getArticleId(), event.getAuthorId(), maxLength);
+        log.debug("article {} pushed to {} feeds", event.getArticleId(), feeds);
+    }
+
+    @EventListener
+    @Transactional
+    public void onFollowChange(FollowChangeEvent event) {
+        if (event.isFollowing())
+            feedRepository.backfill(event.getFollowerId(), event.getFolloweeId(), maxLength);
+        else
+            feedRepository.removeAuthor(event.getFollowerId(), event.getFolloweeId());
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${feed.trim-interval:PT6H}")
+    public void trimFeeds() {
+        int trimmed = feedRepository.trim(maxLength);
+        if (trimmed > 0)
+            log.info("trimmed {} feed items", trimmed);
+    }
+}
@@ -1,11 +1,17 @@
 package com.elseff.project.web.api.modules.user.controller;
 
+import com.elseff.project.cache.CachedEntity;
+import com.elseff.project.cache.NegativeCache;
+import com.elseff.project.cache.SingleFlight;
 import com.elseff.project.persistense.UserEntity;
 import com.elseff.project.security.SecurityUtils;
 import com.elseff.project.web.api.modules.auth.service.AuthService;
+import com.elseff.project.web.api.modules.user.dto.UserBatchDto;
 import com.elseff.project.web.api.modules.user.dto.UserDto;
 import com.elseff.project.web.api.modules.user.dto.UserUpdateRequest;
 import com.elseff.project.web.api.modules.user.dto.mapper.UserDtoMapper;
+import com.elseff.project.web.api.modules.user.exception.UserNotFoundException;
+import com.elseff.project.web.api.modules.user.listing.UserListStreamer;
 import com.elseff.project.web.api.modules.user.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -18,13 +24,20 @@ import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Validated
@@ -35,12 +48,20 @@ import java.util.Objects;
 @Tag(name = "User controller", description = "User management")
 public class UserController {
 
+    private static final int MAX_BATCH = 100;
+
     UserService userService;
 
     UserDtoMapper userDtoMapper;
 
     SecurityUtils securityUtils;
 
+    SingleFlight singleFlight;
+
+    NegativeCache negativeCache;
+
+    UserListStreamer userListStreamer;
+
     @Operation(summary = "Get all users",
             responses = {
                     @ApiResponse(
@@ -52,7 +73,7 @@ public class UserController {
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
     public List<UserDto> getAllUsers() {
-        List<UserEntity> users = userService.getAllUsers();
+        List<UserEntity> users = singleFlight.load("users.findAll", null, userService::getAllUsers);
 
         boolean currentUserIsAdmin = securityUtils.userIsAdmin(Objects.requireNonNull(AuthService.getCurrentUser()));
 
@@ -60,6 +81,51 @@ public class UserController {
                 : userDtoMapper.mapListUserEntityToDtoForUser(users);
     }
 
+    @Operation(summary = "Get all users, streamed",
+            description = "Requested with stream=true. The same list, by id, written to the response while it is " +
+                    "read from the database, for lists too large to be built in memory first",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            content = @Content(schema = @Schema(implementation = UserDto.class))
+                    ),
+            }
+    )
+    @GetMapping(params = {"stream=true", "!ids"})
+    public ResponseEntity<StreamingResponseBody> getAllUsersStreamed() {
+        boolean currentUserIsAdmin = securityUtils.userIsAdmin(Objects.requireNonNull(AuthService.getCurrentUser()));
+
+        return userListStreamer.stream(currentUserIsAdmin);
+    }
+
+    @Operation(summary = "Get users by ids",
+            description = "Users in the order of the given ids, duplicates once, along with the ids that were not found. " +
+                    "Up to " + MAX_BATCH + " ids",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            content = @Content(schema = @Schema(implementation = UserBatchDto.class))
+                    ),
+                    @ApiResponse(responseCode = "400", description = "No ids or too many ids", content = @Content),
+            }
+    )
+    @GetMapping(params = "ids")
+    @ResponseStatus(HttpStatus.OK)
+    public UserBatchDto getAllByIds(@Parameter(description = "comma separated ids", required = true)
+                                    @RequestParam(name = "ids") @NotEmpty @Size(max = MAX_BATCH) List<Long> ids) {
+        List<Long> distinctIds = List.copyOf(new LinkedHashSet<>(ids));
+        List<UserEntity> users = userService.findAllByIdIn(distinctIds);
+
+        boolean currentUserIsAdmin = securityUtils.userIsAdmin(Objects.requireNonNull(AuthService.getCurrentUser()));
+
+        Set<Long> found = users.stream().map(UserEntity::getId).collect(Collectors.toSet());
+        return UserBatchDto.builder()
+                .users(currentUserIsAdmin ? userDtoMapper.mapListUserEntityToDtoForAdmin(users)
+                        : userDtoMapper.mapListUserEntityToDtoForUser(users))
+                .missing(distinctIds.stream().filter(id -> !found.contains(id)).collect(Collectors.toList()))
+                .build();
+    }
+
     @Operation(summary = "Get specific user",
             responses = {
                     @ApiResponse(
@@ -73,7 +139,9 @@ public class UserController {
     @ResponseStatus(HttpStatus.OK)
     public UserDto getSpecific(@Parameter(description = "User id")
                                @PathVariable Long id) {
-        UserEntity user = userService.getUserById(id);
+        UserEntity user = negativeCache.load(CachedEntity.USER, id,
+                () -> singleFlight.load("users.findById", id, () -> userService.getUserById(id)),
+                () -> new UserNotFoundException("could not find user " + id));
 
         boolean currentUserIsAdmin = securityUtils.userIsAdmin(Objects.requireNonNull(AuthService.getCurrentUser()));
 
@@ -98,6 +166,33 @@ public class UserController {
         userService.deleteUser(id);
     }
 
+    @Operation(summary = "Follow user",
+            description = "Articles of followed users appear in the feed of the current user",
+            responses = {
+                    @ApiResponse(responseCode = "204", description = "User is followed", content = @Content),
+                    @ApiResponse(responseCode = "400", description = "User tries to follow himself", content = @Content),
+                    @ApiResponse(responseCode = "404", description = "User not found", content = @Content),
+            }
+    )
+    @PostMapping("/{id}/follow")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void follow(@Parameter(description = "User id")
+                       @PathVariable Long id) {
+        userService.follow(id);
+    }
+
+    @Operation(summary = "Unfollow user",
+            responses = {
+                    @ApiResponse(responseCode = "204", description = "User is not followed", content = @Content),
+            }
+    )
+    @DeleteMapping("/{id}/follow")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void unfollow(@Parameter(description = "User id")
+                         @PathVariable Long id) {
+        userService.unfollow(id);
+    }
+
     @Operation(summary = "Update user",
             responses = {
                     @ApiResponse(
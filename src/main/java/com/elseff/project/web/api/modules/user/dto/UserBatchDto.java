@@ -0,0 +1,22 @@
+package com.elseff.project.web.api.modules.user.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class UserBatchDto {
+
+    @Schema(description = "found users in the requested order")
+    List<UserDto> users;
+
+    @Schema(description = "requested ids without a user")
+    List<Long> missing;
+}
@@ -27,7 +27,7 @@ public class UserDtoMapper {
                                 ArticleDto.builder()
                                         .id(articleEntity.getId())
                                         .title(articleEntity.getTitle())
-                                        .description(articleEntity.getDescription())
+                                        .excerpt(articleEntity.getExcerpt())
                                         .build())
                         .collect(Collectors.toList()))
                 .roles(user.getRoles())
@@ -46,7 +46,7 @@ public class UserDtoMapper {
                                 ArticleDto.builder()
                                         .id(articleEntity.getId())
                                         .title(articleEntity.getTitle())
-                                        .description(articleEntity.getDescription())
+                                        .excerpt(articleEntity.getExcerpt())
                                         .build())
                         .collect(Collectors.toList()))
                 .build();
@@ -0,0 +1,26 @@
+package com.elseff.project.web.api.modules.user.event;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Published by the user service inside the transaction that starts or stops following a user
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class FollowChangeEvent {
+
+    Long followerId;
+
+    Long followeeId;
+
+    /**
+     * true when the follower started following, false when stopped
+     */
+    boolean following;
+}
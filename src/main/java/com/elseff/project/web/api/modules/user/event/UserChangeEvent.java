@@ -0,0 +1,19 @@
+package com.elseff.project.web.api.modules.user.event;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Published inside the transaction that registers, updates or deletes a user
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UserChangeEvent {
+
+    Long userId;
+}
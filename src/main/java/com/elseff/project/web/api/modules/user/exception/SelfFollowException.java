@@ -0,0 +1,11 @@
+package com.elseff.project.web.api.modules.user.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class SelfFollowException extends RuntimeException {
+    public SelfFollowException() {
+        super("You can't follow yourself");
+    }
+}
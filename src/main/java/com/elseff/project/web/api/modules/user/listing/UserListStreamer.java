@@ -0,0 +1,94 @@
+package com.elseff.project.web.api.modules.user.listing;
+
+import com.elseff.project.persistense.RoleEntity;
+import com.elseff.project.persistense.dao.RoleRepository;
+import com.elseff.project.web.api.modules.article.dto.ArticleDto;
+import com.elseff.project.web.api.modules.user.dto.UserDto;
+import com.elseff.project.web.api.modules.user.dto.mapper.UserDtoMapper;
+import com.elseff.project.web.api.streaming.JsonArrayStreamer;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Streams all users by id in the same form as the lists built by {@link UserDtoMapper}, for an admin
+ * or for a user. Every user is read in one row with the ids, titles and excerpts of their articles
+ * aggregated into arrays, so that a user is complete as soon as its row is read.
+ */
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UserListStreamer {
+
+    private static final String SELECT_USERS = "SELECT u.id, u.first_name, u.last_name, u.email, u.country, " +
+            "u.registration_date, u.updated_at, " +
+            "ARRAY(SELECT ur.role_id FROM user_role ur WHERE ur.user_id = u.id) AS role_ids, " +
+            "a.article_ids, a.titles, a.excerpts " +
+            "FROM _user u LEFT JOIN LATERAL (SELECT array_agg(id ORDER BY id) AS article_ids, " +
+            "array_agg(title ORDER BY id) AS titles, array_agg(excerpt ORDER BY id) AS excerpts " +
+            "FROM article WHERE author_id = u.id) a ON true " +
+            "ORDER BY u.id";
+
+    JsonArrayStreamer jsonArrayStreamer;
+
+    RoleRepository roleRepository;
+
+    /**
+     * @param forAdmin with the email, the dates and the roles, as {@link UserDtoMapper#mapUserEntityToDtoForAdmin}
+     */
+    public ResponseEntity<StreamingResponseBody> stream(boolean forAdmin) {
+        // a few rows, read once for the whole list
+        Map<Long, RoleEntity> roles = forAdmin
+                ? roleRepository.findAll().stream().collect(Collectors.toMap(RoleEntity::getId, Function.identity()))
+                : Map.of();
+        return jsonArrayStreamer.stream(SELECT_USERS, null, (row, rowNumber) -> mapRow(row, forAdmin, roles));
+    }
+
+    private static UserDto mapRow(ResultSet row, boolean forAdmin, Map<Long, RoleEntity> roles) throws SQLException {
+        UserDto.UserDtoBuilder user = UserDto.builder()
+                .id(row.getLong("id"))
+                .firstName(row.getString("first_name"))
+                .lastName(row.getString("last_name"))
+                .country(row.getString("country"))
+                .articles(mapArticles(row));
+        if (forAdmin) {
+            Set<RoleEntity> userRoles = new HashSet<>();
+            for (Long roleId : (Long[]) row.getArray("role_ids").getArray())
+                userRoles.add(roles.get(roleId));
+            user.email(row.getString("email"))
+                    .registrationDate(row.getTimestamp("registration_date"))
+                    .updatedAt(row.getTimestamp("updated_at"))
+                    .roles(userRoles);
+        }
+        return user.build();
+    }
+
+    private static List<ArticleDto> mapArticles(ResultSet row) throws SQLException {
+        if (row.getArray("article_ids") == null)
+            return List.of();
+        Long[] ids = (Long[]) row.getArray("article_ids").getArray();
+        String[] titles = (String[]) row.getArray("titles").getArray();
+        String[] excerpts = (String[]) row.getArray("excerpts").getArray();
+        List<ArticleDto> articles = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++)
+            articles.add(ArticleDto.builder()
+                    .id(ids[i])
+                    .title(titles[i])
+                    .excerpt(excerpts[i])
+                    .build());
+        return articles;
+    }
+}
@@ -1,50 +1,89 @@
 package com.elseff.project.web.api.modules.user.service;
 
+import com.elseff.project.persistense.TagEntity;
 import com.elseff.project.persistense.UserEntity;
+import com.elseff.project.persistense.dao.FollowRepository;
 import com.elseff.project.persistense.dao.UserRepository;
 import com.elseff.project.security.SecurityUtils;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeEvent;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeType;
 import com.elseff.project.web.api.modules.auth.service.AuthService;
 import com.elseff.project.web.api.modules.user.dto.UserUpdateRequest;
+import com.elseff.project.web.api.modules.user.event.FollowChangeEvent;
+import com.elseff.project.web.api.modules.user.event.UserChangeEvent;
+import com.elseff.project.web.api.modules.user.exception.SelfFollowException;
 import com.elseff.project.web.api.modules.user.exception.SomeoneElseUserProfileException;
 import com.elseff.project.web.api.modules.user.exception.UserNotFoundException;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class UserService {
 
     UserRepository userRepository;
 
+    FollowRepository followRepository;
+
     SecurityUtils securityUtils;
 
+    ApplicationEventPublisher eventPublisher;
+
     public UserEntity getUserById(Long id) {
-        return userRepository.findById(id)
+        UserEntity user = userRepository.findById(id)
                 .orElseThrow(() -> {
-                    log.warn("could not find user " + id);
+                    log.debug("could not find user {}", id);
                     return new UserNotFoundException("could not find user " + id);
                 });
+        Hibernate.initialize(user.getArticles());
+
+        return user;
     }
 
     public List<UserEntity> getAllUsers() {
         return userRepository.findAll();
     }
 
+    /**
+     * Users in the order of the given ids, ids of missing users are skipped
+     */
+    public List<UserEntity> findAllByIdIn(List<Long> ids) {
+        if (ids.isEmpty())
+            return List.of();
+
+        Map<Long, UserEntity> users = userRepository.findAllByIdIn(ids).stream()
+                .collect(Collectors.toMap(UserEntity::getId, Function.identity()));
+
+        return ids.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
     public void deleteUser(Long id) {
         UserEntity userFromDb = userRepository.findById(id)
                 .orElseThrow(() -> {
-                    log.warn("could not find user " + id);
+                    log.debug("could not find user {}", id);
                     return new UserNotFoundException("could not find user " + id);
                 });
 
@@ -52,21 +91,26 @@ public class UserService {
         boolean currentUserIsAdmin = securityUtils.userIsAdmin(currentUser);
 
         if (currentUserIsAdmin) {
+            followRepository.unfollowAll(id);
             userRepository.deleteById(id);
             log.info("delete user {} by admin {}", userFromDb.getEmail(), currentUser.getUsername());
         } else {
             if (userFromDb.getEmail().equals(currentUser.getUsername())) {
+                followRepository.unfollowAll(id);
                 userRepository.deleteById(id);
                 log.info("delete user profile {}", userFromDb.getEmail());
             } else
                 throw new SomeoneElseUserProfileException();
         }
+        eventPublisher.publishEvent(new UserChangeEvent(id));
+        publishArticlesDeleted(userFromDb);
     }
 
+    @Transactional
     public UserEntity updateUser(Long id, UserUpdateRequest updateRequest) {
         UserEntity user = userRepository.findById(id)
                 .orElseThrow(() -> {
-                    log.warn("could not find user " + id);
+                    log.debug("could not find user {}", id);
                     return new UserNotFoundException("could not find user " + id);
                 });
 
@@ -84,6 +128,8 @@ public class UserService {
 
             user.setUpdatedAt(Timestamp.from(Instant.now()));
             userRepository.save(user);
+            eventPublisher.publishEvent(new UserChangeEvent(user.getId()));
+            Hibernate.initialize(user.getArticles());
             log.info("updated user profile {}", user.getEmail());
 
             return user;
@@ -91,8 +137,57 @@ public class UserService {
             throw new SomeoneElseUserProfileException();
     }
 
+    @Transactional
+    public void follow(Long id) {
+        UserDetails currentUser = Objects.requireNonNull(AuthService.getCurrentUser());
+        UserEntity follower = userRepository.getByEmail(currentUser.getUsername());
+        UserEntity followee = userRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.debug("could not find user {}", id);
+                    return new UserNotFoundException("could not find user " + id);
+                });
+
+        if (follower.getId().equals(followee.getId()))
+            throw new SelfFollowException();
+
+        if (followRepository.follow(follower.getId(), followee.getId())) {
+            log.info("user {} follows user {}", follower.getEmail(), followee.getEmail());
+            eventPublisher.publishEvent(new FollowChangeEvent(follower.getId(), followee.getId(), true));
+        }
+    }
+
+    @Transactional
+    public void unfollow(Long id) {
+        UserDetails currentUser = Objects.requireNonNull(AuthService.getCurrentUser());
+        UserEntity follower = userRepository.getByEmail(currentUser.getUsername());
+
+        if (followRepository.unfollow(follower.getId(), id)) {
+            log.info("user {} unfollows user {}", follower.getEmail(), id);
+            eventPublisher.publishEvent(new FollowChangeEvent(follower.getId(), id, false));
+        }
+    }
+
     public UserEntity getMe() {
         UserDetails currentUser = Objects.requireNonNull(AuthService.getCurrentUser());
-        return userRepository.getByEmail(currentUser.getUsername());
+        UserEntity me = userRepository.getByEmail(currentUser.getUsername());
+        Hibernate.initialize(me.getArticles());
+
+        return me;
+    }
+
+    /**
+     * Articles of a deleted user are removed along with the user, without going through the article service
+     */
+    private void publishArticlesDeleted(UserEntity user) {
+        if (user.getArticles() == null)
+            return;
+
+        user.getArticles().forEach(article -> {
+            Set<String> tags = article.getTags() == null
+                    ? Set.of()
+                    : article.getTags().stream().map(TagEntity::getName).collect(Collectors.toSet());
+            eventPublisher.publishEvent(new ArticleChangeEvent(ArticleChangeType.DELETED,
+                    article.getId(), user.getId(), article.getTitle(), tags, tags));
+        });
     }
 }
@@ -0,0 +1,166 @@
+package com.elseff.project.web.api.streaming;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Writes lists as a JSON array straight to the response, one element at a time, instead of building the whole
+ * list first. Rows are read through a cursor of {@code streaming.fetch-size} rows, every row is mapped
+ * and written before the next one is read, so neither the time to the first byte nor the memory grows with
+ * the size of the list.
+ * <p>
+ * The query runs in a read-only transaction of its own on the async request thread, which holds
+ * a connection until the last row has been written. A client that reads slowly holds it as long, so at most
+ * {@code streaming.max-concurrent} queries are streamed at a time and the pool is left to the other requests.
+ * A stream over the limit is refused with a 503 before the async request is started. The slot is given back when
+ * the body has been written, or when the async request ends without running it, after a timeout or when
+ * the executor refuses the task.
+ * An error after the first element has been written can't change the status any more and cuts the response off.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class JsonArrayStreamer {
+
+    ObjectMapper objectMapper;
+
+    JdbcTemplate jdbcTemplate;
+
+    TransactionTemplate transactionTemplate;
+
+    int maxConcurrent;
+
+    /**
+     * Queries being streamed, with the connections they hold
+     */
+    Semaphore streams;
+
+    public JsonArrayStreamer(ObjectMapper objectMapper,
+                             DataSource dataSource,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${streaming.fetch-size:500}") int fetchSize,
+                             @Value("${streaming.max-concurrent:4}") int maxConcurrent) {
+        this.objectMapper = objectMapper;
+        this.maxConcurrent = maxConcurrent;
+        this.streams = new Semaphore(maxConcurrent);
+        // a template of its own, the fetch size applies to all of its queries
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Every row of the query mapped by the row mapper. Rows aren't counted, the mapper always gets 0 as the row number
+     *
+     * @throws TooManyStreamsException if {@code streaming.max-concurrent} queries are already being streamed
+     */
+    public <T> ResponseEntity<StreamingResponseBody> stream(String sql,
+                                                            PreparedStatementSetter parameters,
+                                                            RowMapper<T> rowMapper) {
+        // taken on the request thread, so a refused stream still gets its status
+        if (!streams.tryAcquire())
+            throw new TooManyStreamsException(maxConcurrent);
+        Runnable release = releaseOnce();
+        return response(outputStream -> {
+            try (JsonGenerator generator = createGenerator(outputStream)) {
+                generator.writeStartArray();
+                transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.query(sql, parameters, (RowCallbackHandler) row -> {
+                            try {
+                                generator.writeObject(rowMapper.mapRow(row, 0));
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        }));
+                generator.writeEndArray();
+            } catch (UncheckedIOException e) {
+                // the client went away, rethrown as it is so it isn't taken for a server error
+                throw e.getCause();
+            } finally {
+                release.run();
+            }
+        });
+    }
+
+    /**
+     * Gives the slot back at most once, at the latest when the async request of the current request completes
+     */
+    private Runnable releaseOnce() {
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true))
+                streams.release();
+        };
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes) {
+            WebAsyncUtils.getAsyncManager(((ServletRequestAttributes) attributes).getRequest())
+                    .registerCallableInterceptor(release, new CallableProcessingInterceptor() {
+                        @Override
+                        public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+                            release.run();
+                        }
+                    });
+        }
+        return release;
+    }
+
+    /**
+     * Every element already in memory, mapped one at a time while it is written
+     */
+    public <T> ResponseEntity<StreamingResponseBody> stream(Collection<T> elements, Function<T, ?> mapper) {
+        return response(outputStream -> {
+            try (JsonGenerator generator = createGenerator(outputStream)) {
+                generator.writeStartArray();
+                for (T element : elements)
+                    generator.writeObject(mapper.apply(element));
+                generator.writeEndArray();
+            }
+        });
+    }
+
+    /**
+     * A list cut off by an error must not be closed into valid JSON, the client would take it for the whole list.
+     * The response stream is closed by Spring MVC
+     */
+    private JsonGenerator createGenerator(OutputStream outputStream) throws IOException {
+        return objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> response(StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+}
@@ -0,0 +1,15 @@
+package com.elseff.project.web.api.streaming;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when all the connections set aside for streamed lists are in use. It ends up as a 503 and is thrown
+ * exactly when the server is busy, so it doesn't capture a stack trace.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class TooManyStreamsException extends RuntimeException {
+    public TooManyStreamsException(int maxConcurrent) {
+        super("all " + maxConcurrent + " streamed lists are being sent, try again later", null, false, false);
+    }
+}
@@ -0,0 +1,51 @@
+package db.migration;
+
+import com.elseff.project.web.api.modules.article.related.MinHash;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Computes MinHash signatures of the existing articles in batches. Articles without words get no signature.
+ */
+public class V12_1__backfill_article_minhash extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT a.id, a.title, a.description FROM article a " +
+                        "WHERE a.id > ? AND NOT EXISTS (SELECT 1 FROM article_minhash m WHERE m.article_id = a.id) " +
+                        "ORDER BY a.id LIMIT " + BATCH_SIZE);
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO article_minhash (article_id, signature) VALUES (?, ?)")) {
+            // articles without a signature are selected again, so the batches go by id
+            long lastId = 0;
+            int selected;
+            do {
+                selected = 0;
+                select.setLong(1, lastId);
+                try (ResultSet rows = select.executeQuery()) {
+                    while (rows.next()) {
+                        lastId = rows.getLong("id");
+                        selected++;
+                        int[] signature = MinHash.signature(rows.getString("title"), rows.getString("description"));
+                        if (signature == null)
+                            continue;
+
+                        insert.setLong(1, lastId);
+                        insert.setBytes(2, MinHash.toBytes(signature));
+                        insert.addBatch();
+                    }
+                }
+                insert.executeBatch();
+            } while (selected == BATCH_SIZE);
+        }
+    }
+}
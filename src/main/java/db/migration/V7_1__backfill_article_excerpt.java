@@ -0,0 +1,46 @@
+package db.migration;
+
+import com.elseff.project.persistense.ArticleTextUtils;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Fills excerpt, word_count and reading_time of the existing articles in batches.
+ */
+public class V7_1__backfill_article_excerpt extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id, description FROM article WHERE excerpt IS NULL ORDER BY id LIMIT " + BATCH_SIZE);
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE article SET excerpt = ?, word_count = ?, reading_time = ? WHERE id = ?")) {
+            int updated;
+            do {
+                updated = 0;
+                try (ResultSet rows = select.executeQuery()) {
+                    while (rows.next()) {
+                        String description = rows.getString("description");
+                        int wordCount = ArticleTextUtils.wordCount(description);
+
+                        update.setString(1, ArticleTextUtils.excerpt(description));
+                        update.setInt(2, wordCount);
+                        update.setInt(3, ArticleTextUtils.readingTime(wordCount));
+                        update.setLong(4, rows.getLong("id"));
+                        update.addBatch();
+                        updated++;
+                    }
+                }
+                update.executeBatch();
+            } while (updated == BATCH_SIZE);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+ALTER TABLE _user
+    ADD COLUMN follower_count INT NOT NULL DEFAULT 0;
+
+CREATE TABLE follow
+(
+    follower_id BIGINT    NOT NULL,
+    followee_id BIGINT    NOT NULL,
+    created_at  TIMESTAMP NOT NULL DEFAULT now(),
+    CONSTRAINT pk_follow PRIMARY KEY (follower_id, followee_id),
+    CONSTRAINT fk_follow_follower_id FOREIGN KEY (follower_id) REFERENCES _user (id) ON DELETE CASCADE,
+    CONSTRAINT fk_follow_followee_id FOREIGN KEY (followee_id) REFERENCES _user (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_follow_followee_id ON follow (followee_id);
+
+-- materialized home feeds, a page is a backward range scan of the primary key
+CREATE TABLE feed_item
+(
+    user_id    BIGINT NOT NULL,
+    article_id BIGINT NOT NULL,
+    CONSTRAINT pk_feed_item PRIMARY KEY (user_id, article_id),
+    CONSTRAINT fk_feed_item_user_id FOREIGN KEY (user_id) REFERENCES _user (id) ON DELETE CASCADE,
+    CONSTRAINT fk_feed_item_article_id FOREIGN KEY (article_id) REFERENCES article (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_feed_item_article_id ON feed_item (article_id);
+
+-- newest articles of an author, used for the feeds of authors that are not fanned out
+CREATE INDEX idx_article_author_id_id ON article (author_id, id);
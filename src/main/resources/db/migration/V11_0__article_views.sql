@@ -0,0 +1,2 @@
+ALTER TABLE article
+    ADD COLUMN views BIGINT NOT NULL DEFAULT 0;
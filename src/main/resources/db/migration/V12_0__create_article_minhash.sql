@@ -0,0 +1,7 @@
+CREATE TABLE article_minhash
+(
+    article_id BIGINT NOT NULL,
+    signature  BYTEA  NOT NULL,
+    CONSTRAINT pk_article_minhash PRIMARY KEY (article_id),
+    CONSTRAINT fk_article_minhash_article_id FOREIGN KEY (article_id) REFERENCES article (id) ON DELETE CASCADE
+);
@@ -0,0 +1,29 @@
+-- log of article changes for the delta sync, pruned after the retention period
+CREATE TABLE article_change
+(
+    seq        BIGSERIAL   NOT NULL,
+    article_id BIGINT      NOT NULL,
+    type       VARCHAR(16) NOT NULL,
+    changed_at TIMESTAMP   NOT NULL DEFAULT now(),
+    CONSTRAINT pk_article_change PRIMARY KEY (seq)
+);
+
+CREATE INDEX idx_article_change_changed_at ON article_change (changed_at);
+
+-- newest pruned change, cursors before it can no longer be served
+CREATE TABLE article_change_retention
+(
+    id         INT    NOT NULL,
+    pruned_seq BIGINT NOT NULL,
+    CONSTRAINT pk_article_change_retention PRIMARY KEY (id),
+    CONSTRAINT ck_article_change_retention_single_row CHECK (id = 1)
+);
+
+INSERT INTO article_change_retention (id, pruned_seq)
+VALUES (1, 0);
+
+-- existing articles, so a sync from the start returns them too
+INSERT INTO article_change (article_id, type, changed_at)
+SELECT id, 'CREATED', COALESCE(updated_at, created_at)
+FROM article
+ORDER BY id;
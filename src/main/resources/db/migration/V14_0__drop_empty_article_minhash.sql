@@ -0,0 +1,3 @@
+-- signatures of articles without words, every position is Integer.MAX_VALUE
+DELETE FROM article_minhash
+WHERE signature = decode(repeat('7fffffff', 128), 'hex');
@@ -0,0 +1,12 @@
+-- whether an article was pushed to the feeds of its author's followers, articles that were not are merged in on read
+ALTER TABLE article
+    ADD COLUMN pushed BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- 10000 is the default feed.fan-out-threshold, the articles of authors below it were pushed so far
+UPDATE article a
+SET pushed = TRUE
+FROM _user u
+WHERE u.id = a.author_id
+  AND u.follower_count < 10000;
+
+CREATE INDEX idx_article_author_id_id_not_pushed ON article (author_id, id) WHERE NOT pushed;
@@ -0,0 +1,8 @@
+ALTER TABLE article
+ADD COLUMN excerpt VARCHAR(255);
+
+ALTER TABLE article
+ADD COLUMN word_count INTEGER NOT NULL DEFAULT 0;
+
+ALTER TABLE article
+ADD COLUMN reading_time INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,2 @@
+ALTER TABLE article
+ALTER COLUMN excerpt SET NOT NULL;
@@ -0,0 +1,18 @@
+CREATE TABLE tag
+(
+    id   BIGSERIAL   NOT NULL,
+    name VARCHAR(50) NOT NULL,
+    CONSTRAINT pk_tag PRIMARY KEY (id),
+    CONSTRAINT uq_tag_name UNIQUE (name)
+);
+
+CREATE TABLE article_tag
+(
+    article_id BIGINT NOT NULL,
+    tag_id     BIGINT NOT NULL,
+    CONSTRAINT pk_article_tag PRIMARY KEY (article_id, tag_id),
+    CONSTRAINT fk_article_tag_article_id FOREIGN KEY (article_id) REFERENCES article (id) ON DELETE CASCADE,
+    CONSTRAINT fk_article_tag_tag_id FOREIGN KEY (tag_id) REFERENCES tag (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_article_tag_tag_id ON article_tag (tag_id);
@@ -0,0 +1,19 @@
+ALTER TABLE article
+    ADD COLUMN comment_count INT NOT NULL DEFAULT 0;
+
+CREATE TABLE comment
+(
+    id         BIGSERIAL                NOT NULL,
+    article_id BIGINT                   NOT NULL,
+    author_id  BIGINT,
+    path       VARCHAR(200) COLLATE "C" NOT NULL,
+    content    TEXT                     NOT NULL,
+    created_at TIMESTAMP                NOT NULL DEFAULT now(),
+    CONSTRAINT pk_comment PRIMARY KEY (id),
+    CONSTRAINT fk_comment_article_id FOREIGN KEY (article_id) REFERENCES article (id) ON DELETE CASCADE,
+    CONSTRAINT fk_comment_author_id FOREIGN KEY (author_id) REFERENCES _user (id) ON DELETE SET NULL
+);
+
+-- a page of a thread is one range scan: article_id = ? AND path > ? AND path < ? ORDER BY path
+CREATE UNIQUE INDEX uq_comment_article_id_path ON comment (article_id, path);
+CREATE INDEX idx_comment_author_id ON comment (author_id);
@@ -0,0 +1,143 @@
+package com.elseff.project.cache;
+
+import com.elseff.project.web.api.modules.article.event.ArticleChangeEvent;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeType;
+import com.elseff.project.web.api.modules.comment.event.CommentCountChangeEvent;
+import com.elseff.project.web.api.modules.user.event.UserChangeEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class CacheInvalidationBusTest {
+
+    static final String CHANNEL = "test_invalidation";
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    ApplicationEventPublisher sendingNodePublisher;
+
+    @Mock
+    ApplicationEventPublisher receivingNodePublisher;
+
+    CacheInvalidationBus sendingNode;
+
+    CacheInvalidationBus receivingNode;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        sendingNode = bus(sendingNodePublisher);
+        receivingNode = bus(receivingNodePublisher);
+    }
+
+    @Test
+    @DisplayName("An article change reaches the other node as it was published")
+    void articleChange() {
+        ArticleChangeEvent change = new ArticleChangeEvent(ArticleChangeType.UPDATED, 1L, 2L, "title",
+                Set.of("java", "spring"), Set.of("java"));
+
+        sendingNode.onArticleChange(change);
+        CacheInvalidationEvent event = receive(sent());
+
+        Assertions.assertFalse(event.isAll());
+        Assertions.assertEquals(CachedEntity.ARTICLE, event.getEntity());
+        Assertions.assertEquals(1L, event.getId());
+        ArticleChangeEvent received = event.getArticleChange();
+        Assertions.assertEquals(change.getType(), received.getType());
+        Assertions.assertEquals(change.getArticleId(), received.getArticleId());
+        Assertions.assertEquals(change.getAuthorId(), received.getAuthorId());
+        Assertions.assertEquals(change.getTitle(), received.getTitle());
+        Assertions.assertEquals(change.getTags(), received.getTags());
+        Assertions.assertEquals(change.getPreviousTags(), received.getPreviousTags());
+    }
+
+    @Test
+    @DisplayName("Other changes reach the other node without an article change")
+    void otherChanges() {
+        sendingNode.onCommentCountChange(new CommentCountChangeEvent(1L, 1));
+        CacheInvalidationEvent commentCount = receive(sent());
+
+        Assertions.assertEquals(CachedEntity.ARTICLE, commentCount.getEntity());
+        Assertions.assertEquals(1L, commentCount.getId());
+        Assertions.assertNull(commentCount.getArticleChange());
+
+        sendingNode.onUserChange(new UserChangeEvent(3L));
+        CacheInvalidationEvent user = receive(sent());
+
+        Assertions.assertEquals(CachedEntity.USER, user.getEntity());
+        Assertions.assertEquals(3L, user.getId());
+        Assertions.assertNull(user.getArticleChange());
+    }
+
+    @Test
+    @DisplayName("A node ignores its own changes and malformed ones")
+    void ignored() {
+        sendingNode.onUserChange(new UserChangeEvent(3L));
+
+        sendingNode.receive(sent());
+        receivingNode.receive("{not json");
+        receivingNode.receive("{\"entity\":\"SOMETHING_ELSE\"}");
+
+        then(sendingNodePublisher).should(never()).publishEvent(any());
+        then(receivingNodePublisher).should(never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("A failing listener doesn't stop the bus")
+    void failingListener() {
+        willThrow(new IllegalStateException("failing cache"))
+                .given(receivingNodePublisher).publishEvent(any());
+        sendingNode.onUserChange(new UserChangeEvent(3L));
+
+        Assertions.assertDoesNotThrow(() -> receivingNode.receive(sent()));
+    }
+
+    /**
+     * The payload of the last notification sent
+     */
+    private String sent() {
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        then(jdbcTemplate).should(atLeastOnce())
+                .query(eq("SELECT pg_notify(?, ?)"), any(RowCallbackHandler.class), eq(CHANNEL), payload.capture());
+        return payload.getValue();
+    }
+
+    private CacheInvalidationEvent receive(String payload) {
+        clearInvocations(receivingNodePublisher);
+        receivingNode.receive(payload);
+        ArgumentCaptor<CacheInvalidationEvent> event = ArgumentCaptor.forClass(CacheInvalidationEvent.class);
+        then(receivingNodePublisher).should().publishEvent(event.capture());
+        return event.getValue();
+    }
+
+    private CacheInvalidationBus bus(ApplicationEventPublisher eventPublisher) {
+        return new CacheInvalidationBus(jdbcTemplate, new ObjectMapper(), eventPublisher, new DataSourceProperties(),
+                new SimpleMeterRegistry(), CHANNEL, Duration.ofSeconds(1));
+    }
+}
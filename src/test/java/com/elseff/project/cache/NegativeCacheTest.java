@@ -0,0 +1,126 @@
+package com.elseff.project.cache;
+
+import com.elseff.project.config.datasource.ReadYourWritesTracker;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeEvent;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeType;
+import com.elseff.project.web.api.modules.article.exception.ArticleNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.BDDMockito.given;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class NegativeCacheTest {
+
+    static final long ID = 42;
+
+    @Mock
+    ObjectProvider<ReadYourWritesTracker> readYourWritesTrackerProvider;
+
+    @Mock
+    ReadYourWritesTracker readYourWritesTracker;
+
+    AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        given(readYourWritesTracker.getWindow()).willReturn(Duration.ofSeconds(5));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("A missing id is answered without a load")
+    void hit() {
+        NegativeCache negativeCache = negativeCache(Duration.ofSeconds(30));
+
+        assertNotFound(negativeCache);
+        assertNotFound(negativeCache);
+
+        Assertions.assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("A missing id is loaded again once the entry has expired")
+    void expiry() throws InterruptedException {
+        NegativeCache negativeCache = negativeCache(Duration.ofMillis(50));
+
+        assertNotFound(negativeCache);
+        Thread.sleep(100);
+        assertNotFound(negativeCache);
+
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("A missing id is forgotten when it is created")
+    void invalidationOnCreate() {
+        NegativeCache negativeCache = negativeCache(Duration.ofSeconds(30));
+        assertNotFound(negativeCache);
+
+        negativeCache.onArticleChange(created());
+        String article = negativeCache.load(CachedEntity.ARTICLE, ID, () -> {
+            loads.incrementAndGet();
+            return "article";
+        }, () -> new ArticleNotFoundException(ID));
+
+        Assertions.assertEquals("article", article);
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("A miss of an id created within the read-your-writes window isn't remembered")
+    void recentlyCreated() {
+        given(readYourWritesTrackerProvider.getIfAvailable()).willReturn(readYourWritesTracker);
+        NegativeCache negativeCache = negativeCache(Duration.ofSeconds(30));
+
+        negativeCache.onArticleChange(created());
+        // a replica that hasn't caught up yet
+        assertNotFound(negativeCache);
+        assertNotFound(negativeCache);
+
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Users pinned to the primary skip the cache")
+    void pinnedUser() {
+        given(readYourWritesTrackerProvider.getIfAvailable()).willReturn(readYourWritesTracker);
+        NegativeCache negativeCache = negativeCache(Duration.ofSeconds(30));
+        assertNotFound(negativeCache);
+
+        given(readYourWritesTracker.isCurrentUserWithinWindow()).willReturn(true);
+        String article = negativeCache.load(CachedEntity.ARTICLE, ID, () -> "article",
+                () -> new ArticleNotFoundException(ID));
+
+        Assertions.assertEquals("article", article);
+    }
+
+    private NegativeCache negativeCache(Duration ttl) {
+        return new NegativeCache(new SimpleMeterRegistry(), readYourWritesTrackerProvider, 1000, ttl);
+    }
+
+    private void assertNotFound(NegativeCache negativeCache) {
+        Assertions.assertThrows(ArticleNotFoundException.class,
+                () -> negativeCache.load(CachedEntity.ARTICLE, ID, () -> {
+                    loads.incrementAndGet();
+                    throw new ArticleNotFoundException(ID);
+                }, () -> new ArticleNotFoundException(ID)));
+    }
+
+    private static ArticleChangeEvent created() {
+        return new ArticleChangeEvent(ArticleChangeType.CREATED, ID, 1L, "title", Set.of(), Set.of());
+    }
+}
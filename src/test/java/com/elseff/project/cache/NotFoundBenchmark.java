@@ -0,0 +1,89 @@
+package com.elseff.project.cache;
+
+import com.elseff.project.config.datasource.ReadYourWritesTracker;
+import com.elseff.project.web.api.modules.article.exception.ArticleNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The part of a 404 for a missing article spent in the application, at the stack depth of a request going
+ * through the servlet filters and Spring MVC: an exception with a stack trace as before, the stackless one,
+ * and a hit of the negative cache, which also saves the query.
+ * Run with {@code main} or through {@code org.openjdk.jmh.Main NotFoundBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotFoundBenchmark {
+
+    private static final int REQUEST_STACK_DEPTH = 120;
+
+    private static final long MISSING_ID = 42;
+
+    NegativeCache negativeCache;
+
+    @Setup
+    public void setUp() {
+        ObjectProvider<ReadYourWritesTracker> noReplica = new StaticListableBeanFactory()
+                .getBeanProvider(ReadYourWritesTracker.class);
+        negativeCache = new NegativeCache(new SimpleMeterRegistry(), noReplica, 100_000, Duration.ofSeconds(30));
+        try {
+            negativeCache.load(CachedEntity.ARTICLE, MISSING_ID, () -> {
+                throw new ArticleNotFoundException(MISSING_ID);
+            }, () -> new ArticleNotFoundException(MISSING_ID));
+        } catch (ArticleNotFoundException expected) {
+            // the id is remembered now
+        }
+    }
+
+    @Benchmark
+    public Object withStackTrace() {
+        return atDepth(REQUEST_STACK_DEPTH, () -> {
+            throw new IllegalStateException("could not found article " + MISSING_ID);
+        });
+    }
+
+    @Benchmark
+    public Object stackless() {
+        return atDepth(REQUEST_STACK_DEPTH, () -> {
+            throw new ArticleNotFoundException(MISSING_ID);
+        });
+    }
+
+    @Benchmark
+    public Object negativeCacheHit() {
+        return atDepth(REQUEST_STACK_DEPTH, () -> negativeCache.load(CachedEntity.ARTICLE, MISSING_ID,
+                () -> {
+                    throw new IllegalStateException("should not load");
+                }, () -> new ArticleNotFoundException(MISSING_ID)));
+    }
+
+    private static Object atDepth(int depth, Runnable request) {
+        if (depth > 0)
+            return atDepth(depth - 1, request);
+        try {
+            request.run();
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(NotFoundBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,126 @@
+package com.elseff.project.cache;
+
+import com.elseff.project.config.datasource.ReadYourWritesTracker;
+import com.elseff.project.web.api.modules.article.dto.ArticleDto;
+import com.elseff.project.web.api.modules.user.dto.UserDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A page of article previews for a client accepting gzip: serialized and gzipped on every request, as without
+ * the response cache, against a hit of the cache. Loading and mapping the articles, which a hit also saves,
+ * are left out.
+ * Run with {@code main} or through {@code org.openjdk.jmh.Main ResponseCacheBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseCacheBenchmark {
+
+    private static final int ARTICLES = 100;
+
+    ObjectMapper objectMapper;
+
+    ResponseCache responseCache;
+
+    List<ArticleDto> articles;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        responseCache = new ResponseCache(objectMapper, new SimpleMeterRegistry(),
+                new StaticListableBeanFactory().getBeanProvider(ReadYourWritesTracker.class), true,
+                DataSize.ofMegabytes(64), Duration.ofMinutes(1));
+        articles = generateArticles(new Random(42));
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Accept", "application/json");
+        request.addHeader("Accept-Encoding", "gzip, deflate, br");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @Benchmark
+    public byte[] serializeAndGzip() throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(articles);
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(json);
+        }
+        return gzipped.toByteArray();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> cacheHit() {
+        return responseCache.load("articles.findAll", null, () -> articles);
+    }
+
+    private static List<ArticleDto> generateArticles(Random random) {
+        Timestamp now = new Timestamp(1_700_000_000_000L);
+        List<ArticleDto> articles = new ArrayList<>(ARTICLES);
+        for (long id = 1; id <= ARTICLES; id++) {
+            articles.add(ArticleDto.builder()
+                    .id(id)
+                    .title(words(random, 6))
+                    .excerpt(words(random, 40) + "...")
+                    .wordCount(random.nextInt(5000))
+                    .readingTime(1 + random.nextInt(20))
+                    .createdAt(now)
+                    .edited(false)
+                    .updatedAt(now)
+                    .commentCount(random.nextInt(100))
+                    .views((long) random.nextInt(100_000))
+                    .tags(new TreeSet<>(Set.of("java", "spring")))
+                    .author(UserDto.builder()
+                            .id(id % 10 + 1)
+                            .firstName(words(random, 1))
+                            .lastName(words(random, 1))
+                            .build())
+                    .build());
+        }
+        return articles;
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0)
+                text.append(' ');
+            int length = 2 + random.nextInt(8);
+            for (int j = 0; j < length; j++)
+                text.append((char) ('a' + random.nextInt(26)));
+        }
+        return text.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ResponseCacheBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
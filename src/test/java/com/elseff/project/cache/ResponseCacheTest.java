@@ -0,0 +1,187 @@
+package com.elseff.project.cache;
+
+import com.elseff.project.config.datasource.ReadYourWritesTracker;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeEvent;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.mockito.BDDMockito.given;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ResponseCacheTest {
+
+    static final List<String> BODY = List.of("first", "second");
+
+    static final String JSON = "[\"first\",\"second\"]";
+
+    @Mock
+    ObjectProvider<ReadYourWritesTracker> readYourWritesTrackerProvider;
+
+    @Mock
+    ReadYourWritesTracker readYourWritesTracker;
+
+    ResponseCache responseCache;
+
+    AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        given(readYourWritesTrackerProvider.getIfAvailable()).willReturn(readYourWritesTracker);
+        responseCache = responseCache(true);
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Requests preferring JSON are answered with the cached JSON")
+    void prefersJson() {
+        for (String accept : new String[]{null, "application/json", "*/*",
+                "application/cbor;q=0.5, application/json", "text/html;q=0.1, application/*"}) {
+            ResponseEntity<?> response = load(accept, null);
+
+            Assertions.assertArrayEquals(JSON.getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody(), accept);
+            Assertions.assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType(), accept);
+        }
+        Assertions.assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Requests preferring another format are left to content negotiation")
+    void prefersOtherFormat() {
+        for (String accept : new String[]{"application/cbor", "application/x-jackson-smile, application/json;q=0.9",
+                "not a media type"}) {
+            ResponseEntity<?> response = load(accept, null);
+
+            Assertions.assertSame(BODY, response.getBody(), accept);
+            Assertions.assertNull(response.getHeaders().getContentType(), accept);
+        }
+        Assertions.assertEquals(3, loads.get());
+    }
+
+    @Test
+    @DisplayName("Gzip is sent only when accepted")
+    void acceptsGzip() throws IOException {
+        for (String acceptEncoding : new String[]{"gzip", "deflate, GZIP;q=0.5", "br, *"}) {
+            ResponseEntity<?> response = load(null, acceptEncoding);
+
+            Assertions.assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING), acceptEncoding);
+            try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream((byte[]) response.getBody()))) {
+                Assertions.assertEquals(JSON, new String(gzip.readAllBytes(), StandardCharsets.UTF_8), acceptEncoding);
+            }
+        }
+        for (String acceptEncoding : new String[]{null, "deflate, br", "gzip;q=0", "gzip; q=0.000"}) {
+            ResponseEntity<?> response = load(null, acceptEncoding);
+
+            Assertions.assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING), acceptEncoding);
+            Assertions.assertArrayEquals(JSON.getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody(),
+                    acceptEncoding);
+        }
+    }
+
+    @Test
+    @DisplayName("A change drops the cached responses")
+    void invalidation() {
+        load(null, null);
+        load(null, null);
+        Assertions.assertEquals(1, loads.get());
+
+        responseCache.onArticleChange(new ArticleChangeEvent(ArticleChangeType.UPDATED, 1L, 1L, "title", Set.of(), Set.of()));
+        load(null, null);
+        Assertions.assertEquals(2, loads.get());
+
+        responseCache.onCacheInvalidation(CacheInvalidationEvent.all());
+        load(null, null);
+        load(null, null);
+        Assertions.assertEquals(3, loads.get());
+    }
+
+    @Test
+    @DisplayName("Responses are kept per roles")
+    void roles() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("user", null, "ROLE_USER"));
+        load(null, null);
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("admin", null, "ROLE_USER", "ROLE_ADMIN"));
+        load(null, null);
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("another admin", null, "ROLE_ADMIN", "ROLE_USER"));
+        load(null, null);
+
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("A user pinned to the primary neither reads nor fills the cache")
+    void pinnedUser() {
+        given(readYourWritesTracker.isCurrentUserWithinWindow()).willReturn(true);
+        Assertions.assertSame(BODY, load(null, null).getBody());
+        Assertions.assertSame(BODY, load(null, null).getBody());
+
+        given(readYourWritesTracker.isCurrentUserWithinWindow()).willReturn(false);
+        load(null, null);
+        Assertions.assertEquals(3, loads.get());
+    }
+
+    @Test
+    @DisplayName("A disabled cache returns the body as it is")
+    void disabled() {
+        responseCache = responseCache(false);
+
+        Assertions.assertSame(BODY, load(null, "gzip").getBody());
+        Assertions.assertSame(BODY, load(null, "gzip").getBody());
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    private ResponseEntity<?> load(String accept, String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (accept != null)
+            request.addHeader(HttpHeaders.ACCEPT, accept);
+        if (acceptEncoding != null)
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        return responseCache.load("test", null, () -> {
+            loads.incrementAndGet();
+            return BODY;
+        });
+    }
+
+    private ResponseCache responseCache(boolean enabled) {
+        return new ResponseCache(new ObjectMapper(), new SimpleMeterRegistry(), readYourWritesTrackerProvider,
+                enabled, DataSize.ofMegabytes(1), Duration.ofMinutes(1));
+    }
+}
@@ -0,0 +1,184 @@
+package com.elseff.project.cache;
+
+import com.elseff.project.config.datasource.ReadYourWritesTracker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.BDDMockito.given;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class SingleFlightTest {
+
+    @Mock
+    ObjectProvider<ReadYourWritesTracker> readYourWritesTrackerProvider;
+
+    @Mock
+    ReadYourWritesTracker readYourWritesTracker;
+
+    SimpleMeterRegistry meterRegistry;
+
+    ExecutorService executor;
+
+    CountDownLatch leaderStarted;
+
+    CountDownLatch release;
+
+    AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        given(readYourWritesTrackerProvider.getIfAvailable()).willReturn(readYourWritesTracker);
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newCachedThreadPool();
+        leaderStarted = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Callers arriving during a load get its result")
+    void sharedResult() throws Exception {
+        SingleFlight singleFlight = singleFlight(Duration.ofSeconds(10));
+        Object result = new Object();
+
+        Future<Object> leader = executor.submit(() -> singleFlight.load("test", 1L, () -> blockingLoad(result)));
+        Assertions.assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+        Future<Object> follower = executor.submit(() -> singleFlight.load("test", 1L, () -> blockingLoad(new Object())));
+        awaitCounter("single-flight.collapsed", 1);
+        release.countDown();
+
+        Assertions.assertSame(result, leader.get(5, TimeUnit.SECONDS));
+        Assertions.assertSame(result, follower.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Callers arriving during a failing load get its exception")
+    void sharedException() throws Exception {
+        SingleFlight singleFlight = singleFlight(Duration.ofSeconds(10));
+        IllegalStateException failure = new IllegalStateException("load failed");
+
+        Future<Object> leader = executor.submit(() -> singleFlight.load("test", 1L, () -> {
+            blockingLoad(null);
+            throw failure;
+        }));
+        Assertions.assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+        Future<Object> follower = executor.submit(() -> singleFlight.load("test", 1L, () -> blockingLoad(new Object())));
+        awaitCounter("single-flight.collapsed", 1);
+        release.countDown();
+
+        ExecutionException leaderFailure = Assertions.assertThrows(ExecutionException.class,
+                () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException followerFailure = Assertions.assertThrows(ExecutionException.class,
+                () -> follower.get(5, TimeUnit.SECONDS));
+        Assertions.assertSame(failure, leaderFailure.getCause());
+        Assertions.assertSame(failure, followerFailure.getCause());
+        Assertions.assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Callers stop waiting at the deadline and a new load replaces the stuck one")
+    void deadline() throws Exception {
+        SingleFlight singleFlight = singleFlight(Duration.ofMillis(100));
+
+        Future<Object> leader = executor.submit(() -> singleFlight.load("test", 1L, () -> blockingLoad("stuck")));
+        Assertions.assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+        // waits until the deadline, then loads on its own
+        Assertions.assertEquals("own", singleFlight.load("test", 1L, () -> "own"));
+        Assertions.assertEquals(1, counter("single-flight.timeouts"));
+
+        // the stuck flight has expired, this caller leads a new one which the next caller joins
+        CountDownLatch replacementStarted = new CountDownLatch(1);
+        CountDownLatch replacementRelease = new CountDownLatch(1);
+        Future<Object> replacement = executor.submit(() -> singleFlight.load("test", 1L, () -> {
+            replacementStarted.countDown();
+            await(replacementRelease);
+            return "replacement";
+        }));
+        Assertions.assertTrue(replacementStarted.await(5, TimeUnit.SECONDS));
+        Future<Object> follower = executor.submit(() -> singleFlight.load("test", 1L, () -> "follower"));
+        awaitCounter("single-flight.collapsed", 2);
+        replacementRelease.countDown();
+
+        Assertions.assertEquals("replacement", replacement.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals("replacement", follower.get(5, TimeUnit.SECONDS));
+
+        release.countDown();
+        Assertions.assertEquals("stuck", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Users pinned to the primary load on their own")
+    void pinnedUserLoadsAlone() throws Exception {
+        SingleFlight singleFlight = singleFlight(Duration.ofSeconds(10));
+
+        Future<Object> leader = executor.submit(() -> singleFlight.load("test", 1L, () -> blockingLoad("shared")));
+        Assertions.assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+        given(readYourWritesTracker.isCurrentUserWithinWindow()).willReturn(true);
+        Assertions.assertEquals("own", singleFlight.load("test", 1L, () -> "own"));
+        Assertions.assertEquals(0, counter("single-flight.collapsed"));
+
+        release.countDown();
+        Assertions.assertEquals("shared", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    private SingleFlight singleFlight(Duration timeout) {
+        return new SingleFlight(meterRegistry, readYourWritesTrackerProvider, timeout);
+    }
+
+    private <T> T blockingLoad(T result) {
+        loads.incrementAndGet();
+        leaderStarted.countDown();
+        await(release);
+        return result;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS))
+                throw new IllegalStateException("not released");
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long counter(String name) {
+        return (long) meterRegistry.get(name).tag("name", "test").counter().count();
+    }
+
+    private void awaitCounter(String name, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.find(name).tag("name", "test").counter() == null || counter(name) < expected) {
+            if (System.nanoTime() > deadline)
+                Assertions.fail(name + " didn't reach " + expected);
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.elseff.project.config;
+
+import com.elseff.project.persistense.RoleEntity;
+import com.elseff.project.web.api.modules.article.dto.ArticleCreationRequest;
+import com.elseff.project.web.api.modules.article.dto.ArticleDto;
+import com.elseff.project.web.api.modules.user.dto.UserDto;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of a page of article previews, a page of users as an admin sees them and an article
+ * creation request, in JSON and in the binary formats of {@link BinaryFormatsConfig}. The encoded sizes are
+ * printed at setup.
+ * Run with {@code main} or through {@code org.openjdk.jmh.Main BinaryFormatsBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryFormatsBenchmark {
+
+    private static final int ARTICLES = 100;
+
+    private static final int USERS = 50;
+
+    private static final TypeReference<List<ArticleDto>> ARTICLE_LIST = new TypeReference<>() {
+    };
+
+    private static final TypeReference<List<UserDto>> USER_LIST = new TypeReference<>() {
+    };
+
+    @Param({"json", "cbor", "smile"})
+    String format;
+
+    ObjectMapper objectMapper;
+
+    List<ArticleDto> articles;
+
+    List<UserDto> users;
+
+    ArticleCreationRequest request;
+
+    byte[] encodedArticles;
+
+    byte[] encodedUsers;
+
+    byte[] encodedRequest;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonFactory factory = format.equals("cbor") ? new CBORFactory()
+                : format.equals("smile") ? new SmileFactory()
+                : new JsonFactory();
+        // configured the same way as the mappers of the application
+        objectMapper = new Jackson2ObjectMapperBuilder().factory(factory).build();
+
+        Random random = new Random(42);
+        articles = generateArticles(random);
+        users = generateUsers(random);
+        request = ArticleCreationRequest.builder()
+                .title(words(random, 6))
+                .description(words(random, 1200))
+                .tags(Set.of("java", "spring", "performance"))
+                .build();
+
+        encodedArticles = objectMapper.writeValueAsBytes(articles);
+        encodedUsers = objectMapper.writeValueAsBytes(users);
+        encodedRequest = objectMapper.writeValueAsBytes(request);
+        System.out.printf("%n%s: %d articles %d bytes, %d users %d bytes, creation request %d bytes%n",
+                format, ARTICLES, encodedArticles.length, USERS, encodedUsers.length, encodedRequest.length);
+    }
+
+    @Benchmark
+    public byte[] encodeArticles() throws IOException {
+        return objectMapper.writeValueAsBytes(articles);
+    }
+
+    @Benchmark
+    public List<ArticleDto> decodeArticles() throws IOException {
+        return objectMapper.readValue(encodedArticles, ARTICLE_LIST);
+    }
+
+    @Benchmark
+    public byte[] encodeUsers() throws IOException {
+        return objectMapper.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public List<UserDto> decodeUsers() throws IOException {
+        return objectMapper.readValue(encodedUsers, USER_LIST);
+    }
+
+    @Benchmark
+    public ArticleCreationRequest decodeRequest() throws IOException {
+        return objectMapper.readValue(encodedRequest, ArticleCreationRequest.class);
+    }
+
+    private static List<ArticleDto> generateArticles(Random random) {
+        Timestamp now = new Timestamp(1_700_000_000_000L);
+        List<ArticleDto> articles = new ArrayList<>(ARTICLES);
+        for (long id = 1; id <= ARTICLES; id++) {
+            articles.add(ArticleDto.builder()
+                    .id(id)
+                    .title(words(random, 6))
+                    .excerpt(words(random, 40) + "...")
+                    .wordCount(random.nextInt(5000))
+                    .readingTime(1 + random.nextInt(20))
+                    .createdAt(now)
+                    .edited(random.nextBoolean())
+                    .updatedAt(now)
+                    .commentCount(random.nextInt(100))
+                    .views((long) random.nextInt(100_000))
+                    .tags(new TreeSet<>(Set.of("java", "spring")))
+                    .author(UserDto.builder()
+                            .id(id % 10 + 1)
+                            .firstName(words(random, 1))
+                            .lastName(words(random, 1))
+                            .build())
+                    .build());
+        }
+        return articles;
+    }
+
+    private static List<UserDto> generateUsers(Random random) {
+        Timestamp now = new Timestamp(1_700_000_000_000L);
+        RoleEntity role = new RoleEntity(2L, "ROLE_USER");
+        List<UserDto> users = new ArrayList<>(USERS);
+        for (long id = 1; id <= USERS; id++) {
+            List<ArticleDto> userArticles = new ArrayList<>();
+            for (int i = 0; i < 5; i++)
+                userArticles.add(ArticleDto.builder()
+                        .id(id * 10 + i)
+                        .title(words(random, 6))
+                        .excerpt(words(random, 40) + "...")
+                        .build());
+            users.add(UserDto.builder()
+                    .id(id)
+                    .firstName(words(random, 1))
+                    .lastName(words(random, 1))
+                    .email(words(random, 1) + "@example.com")
+                    .country("Belarus")
+                    .registrationDate(now)
+                    .updatedAt(now)
+                    .roles(Set.of(role))
+                    .articles(userArticles)
+                    .build());
+        }
+        return users;
+    }
+
+    /**
+     * Random words, so that the text is not more repetitive than real text
+     */
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0)
+                text.append(' ');
+            int length = 2 + random.nextInt(8);
+            for (int j = 0; j < length; j++)
+                text.append((char) ('a' + random.nextInt(26)));
+        }
+        return text.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BinaryFormatsBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,145 @@
+package com.elseff.project.config;
+
+import com.elseff.project.persistense.ArticleEntity;
+import com.elseff.project.persistense.TagEntity;
+import com.elseff.project.persistense.UserEntity;
+import com.elseff.project.web.api.modules.article.dto.mapper.ArticleDtoMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Connection hold time of {@code GET /api/v1/articles} with open-in-view on and off, for the same requests.
+ * <p>
+ * The database is modeled by a fixed round trip per statement, the list query and the subselect of the tags.
+ * Mapping to DTOs and JSON serialization are the real ones. With open-in-view the connection is taken at the first
+ * statement and returned after the response is written, the tags are loaded lazily while mapping. Without it the
+ * connection is returned when the service transaction ends. The average hold time per request is printed
+ * at the end of every trial, the score is the whole request. A pool of {@code n} connections serves at most
+ * {@code n / hold time} requests per second.
+ * Run with {@code main} or through {@code org.openjdk.jmh.Main OpenInViewBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpenInViewBenchmark {
+
+    private static final long ROUND_TRIP_NANOS = TimeUnit.MICROSECONDS.toNanos(300);
+
+    @Param({"20", "100"})
+    int articles;
+
+    ArticleDtoMapper articleDtoMapper;
+
+    ObjectMapper objectMapper;
+
+    List<ArticleEntity> page;
+
+    LongAdder requests;
+
+    LongAdder holdNanos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        articleDtoMapper = new ArticleDtoMapper();
+        objectMapper = new ObjectMapper();
+        page = generateArticles();
+        requests = new LongAdder();
+        holdNanos = new LongAdder();
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        System.out.printf("%n%d articles: average connection hold time %.0f us over %d requests%n",
+                articles, holdNanos.sum() / 1000.0 / requests.sum(), requests.sum());
+    }
+
+    @Benchmark
+    public byte[] openInView() throws JsonProcessingException {
+        long start = acquire();
+        try {
+            roundTrip();
+            // the first access of a lazy collection loads the tags of the whole page
+            roundTrip();
+            return objectMapper.writeValueAsBytes(articleDtoMapper.mapListArticleEntityToPreviewDto(page));
+        } finally {
+            release(start);
+        }
+    }
+
+    @Benchmark
+    public byte[] transactionOnly() throws JsonProcessingException {
+        long start = acquire();
+        try {
+            roundTrip();
+            roundTrip();
+        } finally {
+            release(start);
+        }
+        return objectMapper.writeValueAsBytes(articleDtoMapper.mapListArticleEntityToPreviewDto(page));
+    }
+
+    private static long acquire() {
+        return System.nanoTime();
+    }
+
+    private void release(long start) {
+        holdNanos.add(System.nanoTime() - start);
+        requests.increment();
+    }
+
+    private static void roundTrip() {
+        LockSupport.parkNanos(ROUND_TRIP_NANOS);
+    }
+
+    private List<ArticleEntity> generateArticles() {
+        Timestamp now = new Timestamp(1_700_000_000_000L);
+        Set<TagEntity> tags = Set.of(
+                TagEntity.builder().id(1L).name("java").build(),
+                TagEntity.builder().id(2L).name("spring").build());
+        List<ArticleEntity> generated = new ArrayList<>(articles);
+        for (long id = 1; id <= articles; id++) {
+            generated.add(ArticleEntity.builder()
+                    .id(id)
+                    .title("Article title number " + id)
+                    .excerpt("Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor "
+                            + "incididunt ut labore et dolore magna aliqua. Ut enim ad minim veniam, quis nostrud…")
+                    .wordCount(1200)
+                    .readingTime(6)
+                    .createdAt(now)
+                    .edited(false)
+                    .updatedAt(now)
+                    .commentCount(3)
+                    .views(150L)
+                    .tags(tags)
+                    .author(UserEntity.builder()
+                            .id(id % 10 + 1)
+                            .firstName("Firstname")
+                            .lastName("Lastname")
+                            .build())
+                    .build());
+        }
+        return generated;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OpenInViewBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
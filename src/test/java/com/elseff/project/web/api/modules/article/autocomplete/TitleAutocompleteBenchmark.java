@@ -0,0 +1,100 @@
+package com.elseff.project.web.api.modules.article.autocomplete;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prefix lookups in the title trie on generated titles, sampled to show the latency percentiles.
+ * The setup removes a part of the titles again and checks every query against a scan of the remaining titles,
+ * then prints the number of nodes and the estimated memory of the trie.
+ * Run with {@code main} or through {@code org.openjdk.jmh.Main TitleAutocompleteBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TitleAutocompleteBenchmark {
+
+    private static final int VOCABULARY = 2000;
+
+    private static final int LIMIT = TitleTrie.TOP;
+
+    @Param({"10000", "100000"})
+    int articles;
+
+    TitleTrie trie;
+
+    String[] queries;
+
+    int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String[] titles = new String[articles];
+        for (int id = 0; id < articles; id++) {
+            titles[id] = title(random);
+            trie = (trie == null ? TitleTrie.EMPTY : trie).put(titles[id], id);
+        }
+        for (int id = 0; id < articles; id += 4) {
+            trie = trie.remove(titles[id], id);
+            titles[id] = null;
+        }
+
+        queries = new String[1024];
+        for (int i = 0; i < queries.length; i++) {
+            String title = titles[random.nextInt(articles / 4) * 4 + 1];
+            queries[i] = title.substring(0, 1 + random.nextInt(Math.min(title.length(), 12)));
+        }
+        for (String query : queries) {
+            if (!Arrays.equals(trie.find(query, LIMIT), scan(titles, query)))
+                throw new IllegalStateException("wrong suggestions for " + query);
+        }
+
+        TitleTrie.Stats stats = trie.stats();
+        System.out.printf("%n%d titles, %d nodes, %d KiB%n", trie.size(), stats.getNodes(), stats.getBytes() / 1024);
+    }
+
+    @Benchmark
+    public long[] find() {
+        return trie.find(queries[next++ & (queries.length - 1)], LIMIT);
+    }
+
+    private static long[] scan(String[] titles, String prefix) {
+        long[] found = new long[LIMIT];
+        int size = 0;
+        for (int id = titles.length - 1; id >= 0 && size < LIMIT; id--) {
+            if (titles[id] != null && titles[id].startsWith(prefix))
+                found[size++] = id;
+        }
+        return Arrays.copyOf(found, size);
+    }
+
+    private static String title(Random random) {
+        int words = 2 + random.nextInt(6);
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0)
+                title.append(' ');
+            // a skewed distribution, so that some words start many titles
+            int word = (int) (VOCABULARY * Math.pow(random.nextDouble(), 3));
+            title.append(Integer.toString(word, 36)).append("ing");
+        }
+        return TitleAutocomplete.normalize(title.toString());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TitleAutocompleteBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,97 @@
+package com.elseff.project.web.api.modules.article.autocomplete;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+class TitleTrieTest {
+
+    @Test
+    @DisplayName("Random puts and removes find the same ids as a scan of all titles")
+    void againstScan() {
+        Random random = new Random(42);
+        TitleTrie trie = TitleTrie.EMPTY;
+        Map<Long, String> titles = new HashMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            long id = 1 + random.nextInt(300);
+            String previous = titles.remove(id);
+            if (previous != null)
+                trie = trie.remove(previous, id);
+            if (random.nextInt(3) > 0) {
+                String title = randomKey(random);
+                titles.put(id, title);
+                trie = trie.put(title, id);
+            }
+
+            if (i % 50 == 0) {
+                Assertions.assertEquals(titles.size(), trie.size());
+                for (int j = 0; j < 20; j++) {
+                    String prefix = randomKey(random);
+                    int limit = random.nextBoolean() ? TitleTrie.TOP : 1 + random.nextInt(TitleTrie.TOP);
+                    Assertions.assertArrayEquals(scan(titles, prefix, limit), trie.find(prefix, limit), prefix);
+                }
+                Assertions.assertArrayEquals(scan(titles, "", TitleTrie.TOP), trie.find("", TitleTrie.TOP));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A trie is left unchanged by the changes made from it")
+    void persistent() {
+        TitleTrie trie = TitleTrie.EMPTY.put("abc", 1).put("abd", 2).put("b", 3);
+
+        TitleTrie changed = trie.remove("abc", 1).put("ab", 4).put("abde", 5);
+
+        Assertions.assertArrayEquals(new long[]{2, 1}, trie.find("ab", TitleTrie.TOP));
+        Assertions.assertArrayEquals(new long[]{5, 4, 2}, changed.find("ab", TitleTrie.TOP));
+        Assertions.assertArrayEquals(new long[0], changed.find("abc", TitleTrie.TOP));
+        Assertions.assertSame(trie, trie.remove("abc", 2));
+        Assertions.assertSame(trie, trie.remove("abx", 1));
+    }
+
+    @Test
+    @DisplayName("Removing every title leaves a single empty node")
+    void removeAll() {
+        TitleTrie trie = TitleTrie.EMPTY;
+        String[] keys = {"a", "ab", "abc", "abd", "b", "ba", ""};
+        for (int i = 0; i < keys.length; i++)
+            trie = trie.put(keys[i], i);
+        for (int i = 0; i < keys.length; i++)
+            trie = trie.remove(keys[i], i);
+
+        Assertions.assertEquals(0, trie.size());
+        Assertions.assertEquals(1, trie.stats().getNodes());
+        Assertions.assertArrayEquals(new long[0], trie.find("", TitleTrie.TOP));
+    }
+
+    /**
+     * Short keys of two letters, so that titles share prefixes and edges are split and merged often
+     */
+    private static String randomKey(Random random) {
+        StringBuilder key = new StringBuilder();
+        int length = random.nextInt(7);
+        for (int i = 0; i < length; i++)
+            key.append(random.nextBoolean() ? 'a' : 'b');
+        return key.toString();
+    }
+
+    private static long[] scan(Map<Long, String> titles, String prefix, int limit) {
+        List<Long> ids = new ArrayList<>();
+        titles.forEach((id, title) -> {
+            if (title.startsWith(prefix))
+                ids.add(id);
+        });
+        return ids.stream()
+                .sorted((first, second) -> Long.compare(second, first))
+                .limit(limit)
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+}
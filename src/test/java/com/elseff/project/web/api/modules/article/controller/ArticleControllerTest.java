@@ -2,6 +2,7 @@ package com.elseff.project.web.api.modules.article.controller;
 
 import com.elseff.project.exception.handling.dto.Violation;
 import com.elseff.project.persistense.ArticleEntity;
+import com.elseff.project.persistense.ArticleTextUtils;
 import com.elseff.project.persistense.RoleEntity;
 import com.elseff.project.persistense.UserEntity;
 import com.elseff.project.persistense.dao.ArticleRepository;
@@ -28,6 +29,7 @@ import org.springframework.security.test.context.support.WithUserDetails;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
@@ -38,6 +40,7 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -161,6 +164,56 @@ public class ArticleControllerTest {
         Assertions.assertEquals(expectedListSize, actualListSize);
     }
 
+    @Test
+    @DisplayName("Find all articles streamed")
+    @WithUserDetails(value = "user@user.com", setupBefore = TestExecutionEvent.TEST_EXECUTION)
+    void findAllStreamed() throws Exception {
+        UserEntity currentAuthenticatedUser = userRepository.getByEmail(getUser().getEmail());
+        articleRepository.save(getArticle(currentAuthenticatedUser));
+        articleRepository.save(getArticle(currentAuthenticatedUser));
+        articleRepository.save(getArticle(currentAuthenticatedUser));
+
+        List<ArticleDto> articles = findAllStreamed(get(endPoint));
+
+        int expectedListSize = 3;
+        int actualListSize = articles.size();
+
+        Assertions.assertEquals(expectedListSize, actualListSize);
+        //previews, by id, with their author
+        articles.forEach(article -> {
+            Assertions.assertNull(article.getDescription());
+            Assertions.assertEquals(currentAuthenticatedUser.getId(), article.getAuthor().getId());
+        });
+        Assertions.assertTrue(articles.get(0).getId() < articles.get(1).getId());
+        Assertions.assertTrue(articles.get(1).getId() < articles.get(2).getId());
+    }
+
+    @Test
+    @DisplayName("Find all articles streamed by author id, with descriptions")
+    @WithUserDetails(value = "user@user.com", setupBefore = TestExecutionEvent.TEST_EXECUTION)
+    void findAllStreamed_By_Author_Id_Full() throws Exception {
+        UserEntity user = userRepository.getByEmail(getUser().getEmail());
+        UserEntity admin = userRepository.getByEmail(getAdmin().getEmail());
+
+        //saving 2 article with author user and 1 article with author admin
+        articleRepository.save(getArticle(user));
+        articleRepository.save(getArticle(user));
+        articleRepository.save(getArticle(admin));
+
+        List<ArticleDto> articles = findAllStreamed(get(endPoint)
+                .param("authorId", user.getId().toString())
+                .param("full", "true"));
+
+        int expectedListSize = 2;
+        int actualListSize = articles.size();
+
+        Assertions.assertEquals(expectedListSize, actualListSize);
+        articles.forEach(article -> {
+            Assertions.assertEquals(user.getId(), article.getAuthor().getId());
+            Assertions.assertEquals(getArticle(user).getDescription(), article.getDescription());
+        });
+    }
+
     @Test
     @DisplayName("Find article")
     @WithUserDetails(value = "user@user.com", setupBefore = TestExecutionEvent.TEST_EXECUTION)
@@ -368,7 +421,7 @@ public class ArticleControllerTest {
         String expectedArticleTitle = "updated title";
         String expectedArticleDescription = "updated description";
         String actualArticleTitle = articleDto.getTitle();
-        String actualArticleDescription = articleDto.getDescription();
+        String actualArticleDescription = articleDto.getDescription().toString();
 
         Assertions.assertEquals(expectedArticleTitle, actualArticleTitle);
         Assertions.assertEquals(expectedArticleDescription, actualArticleDescription);
@@ -469,10 +522,33 @@ public class ArticleControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    private List<ArticleDto> findAllStreamed(MockHttpServletRequestBuilder request) throws Exception {
+        request.param("stream", "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .characterEncoding(StandardCharsets.UTF_8);
+
+        //the list is written on the async request thread
+        MvcResult result = mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String response = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        return objectMapper.readValue(response, new TypeReference<>() {
+        });
+    }
+
     private ArticleEntity getArticle(UserEntity userFromDb) {
+        String description = "test";
+        int wordCount = ArticleTextUtils.wordCount(description);
         return ArticleEntity.builder()
                 .title("test article")
-                .description("test")
+                .description(description)
+                .excerpt(ArticleTextUtils.excerpt(description))
+                .wordCount(wordCount)
+                .readingTime(ArticleTextUtils.readingTime(wordCount))
                 .author(userFromDb)
                 .build();
     }
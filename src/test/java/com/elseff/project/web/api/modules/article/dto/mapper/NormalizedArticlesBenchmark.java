@@ -0,0 +1,134 @@
+package com.elseff.project.web.api.modules.article.dto.mapper;
+
+import com.elseff.project.web.api.modules.article.dto.ArticleDto;
+import com.elseff.project.web.api.modules.article.dto.NormalizedArticlesDto;
+import com.elseff.project.web.api.modules.user.dto.UserDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization of a page of article previews with the author nested in every article, as the lists return it,
+ * against the normalized form with every author once. The sizes of both, plain and gzipped, are printed at setup.
+ * Run with {@code main} or through {@code org.openjdk.jmh.Main NormalizedArticlesBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NormalizedArticlesBenchmark {
+
+    private static final int ARTICLES = 100;
+
+    @Param({"5", "50"})
+    int authors;
+
+    ObjectMapper objectMapper;
+
+    List<ArticleDto> nested;
+
+    NormalizedArticlesDto normalized;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = new ObjectMapper();
+        nested = generateArticles();
+        normalized = new ArticleDtoMapper().normalize(generateArticles());
+
+        byte[] nestedJson = objectMapper.writeValueAsBytes(nested);
+        byte[] normalizedJson = objectMapper.writeValueAsBytes(normalized);
+        System.out.printf("%n%d articles by %d authors: nested %d bytes (%d gzipped), normalized %d bytes (%d gzipped)%n",
+                ARTICLES, authors, nestedJson.length, gzip(nestedJson).length,
+                normalizedJson.length, gzip(normalizedJson).length);
+    }
+
+    @Benchmark
+    public byte[] nested() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(nested);
+    }
+
+    @Benchmark
+    public byte[] normalized() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(normalized);
+    }
+
+    private List<ArticleDto> generateArticles() {
+        Random random = new Random(42);
+        Timestamp now = new Timestamp(1_700_000_000_000L);
+        List<ArticleDto> articles = new ArrayList<>(ARTICLES);
+        for (long id = 1; id <= ARTICLES; id++) {
+            long authorId = id % authors + 1;
+            articles.add(ArticleDto.builder()
+                    .id(id)
+                    .title(words(random, 6))
+                    .excerpt(words(random, 40) + "...")
+                    .wordCount(1200)
+                    .readingTime(6)
+                    .createdAt(now)
+                    .edited(false)
+                    .updatedAt(now)
+                    .commentCount(3)
+                    .views(150L)
+                    .tags(Set.of("java", "spring"))
+                    .author(UserDto.builder()
+                            .id(authorId)
+                            .firstName("Firstname" + authorId)
+                            .lastName("Lastname" + authorId)
+                            .email("author" + authorId + "@example.com")
+                            .country("Belarus")
+                            .registrationDate(now)
+                            .updatedAt(now)
+                            .build())
+                    .build());
+        }
+        return articles;
+    }
+
+    /**
+     * Random words, so that gzip doesn't find more repetition than in real text
+     */
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0)
+                text.append(' ');
+            int length = 2 + random.nextInt(8);
+            for (int j = 0; j < length; j++)
+                text.append((char) ('a' + random.nextInt(26)));
+        }
+        return text.toString();
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(NormalizedArticlesBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
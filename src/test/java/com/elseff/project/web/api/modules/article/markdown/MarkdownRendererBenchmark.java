@@ -0,0 +1,80 @@
+package com.elseff.project.web.api.modules.article.markdown;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering of large descriptions with and without the render cache.
+ * Run with {@code main} or through {@code org.openjdk.jmh.Main MarkdownRendererBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarkdownRendererBenchmark {
+
+    private static final String[] WORDS = {
+            "article", "spring", "cache", "render", "markdown", "request", "latency", "database", "index", "query"
+    };
+
+    @Param({"1000", "10000"})
+    int length;
+
+    MarkdownRenderer renderer;
+
+    String markdown;
+
+    @Setup
+    public void setUp() {
+        renderer = new MarkdownRenderer(new SimpleMeterRegistry(), 10_000_000);
+        markdown = generateMarkdown(length, new Random(42));
+        renderer.render(markdown);
+    }
+
+    @Benchmark
+    public String renderUncached() {
+        return renderer.renderUncached(markdown);
+    }
+
+    @Benchmark
+    public String renderCached() {
+        return renderer.render(markdown);
+    }
+
+    static String generateMarkdown(int length, Random random) {
+        StringBuilder markdown = new StringBuilder(length + 100);
+        while (markdown.length() < length) {
+            markdown.append("## ").append(word(random)).append(' ').append(word(random)).append("\n\n");
+            for (int i = 0; i < 40; i++) {
+                String word = word(random);
+                switch (random.nextInt(10)) {
+                    case 0 -> markdown.append("**").append(word).append("** ");
+                    case 1 -> markdown.append('`').append(word).append("` ");
+                    case 2 -> markdown.append('[').append(word).append("](https://example.com/").append(word).append(") ");
+                    default -> markdown.append(word).append(' ');
+                }
+            }
+            markdown.append("\n\n- ").append(word(random)).append("\n- ").append(word(random)).append("\n\n");
+        }
+        return markdown.substring(0, length);
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MarkdownRendererBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,213 @@
+package com.elseff.project.web.api.modules.article.readmodel;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.PackagePrivate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ArticleBodyStoreTest {
+
+    // magic, id, digest, length
+    static final int HEADER_LENGTH = 32;
+
+    /**
+     * Bodies of this length make records of 72 bytes, three to a segment
+     */
+    static final DataSize SEGMENT_SIZE = DataSize.ofBytes(3 * 72 + 10);
+
+    // JUnit doesn't inject private fields
+    @TempDir
+    @PackagePrivate
+    Path directory;
+
+    ArticleBodyStore store;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (store != null)
+            store.close();
+    }
+
+    @Test
+    @DisplayName("Bodies are read, matched and written as they were put")
+    void putAndRead() throws IOException {
+        store = open();
+        String body = "Ünïcode body with \"quotes\"";
+        store.put(1, body);
+
+        Assertions.assertEquals(body, store.read(1));
+        Assertions.assertEquals(body, store.body(1).toString());
+        Assertions.assertTrue(store.matches(1, md5(body)));
+        Assertions.assertFalse(store.matches(1, md5("another body")));
+        Assertions.assertFalse(store.matches(2, md5(body)));
+
+        String json = "\"Ünïcode body with \\\"quotes\\\"\"";
+        // a stream gets the stored bytes, a writer the decoded body
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (JsonGenerator generator = new JsonFactory().createGenerator(outputStream)) {
+            store.write(1, generator);
+        }
+        Assertions.assertEquals(json, outputStream.toString(StandardCharsets.UTF_8));
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = new JsonFactory().createGenerator(writer)) {
+            store.write(1, generator);
+        }
+        Assertions.assertEquals(json, writer.toString());
+
+        store.put(1, "replaced");
+        Assertions.assertEquals("replaced", store.read(1));
+        store.remove(1);
+        Assertions.assertNull(store.read(1));
+    }
+
+    @Test
+    @DisplayName("A missing body fails instead of reading as empty")
+    void missingBody() {
+        store = open();
+
+        Assertions.assertNull(store.read(1));
+        Assertions.assertThrows(IllegalStateException.class, () -> store.body(1).toString());
+        Assertions.assertThrows(IllegalStateException.class, () -> store.body(1).length());
+    }
+
+    @Test
+    @DisplayName("The latest body of every article is found again after a restart")
+    void reopen() throws IOException {
+        store = open();
+        store.put(1, body('a'));
+        store.put(2, body('b'));
+        store.put(1, body('c'));
+        store.put(3, body('d'));
+        store.close();
+
+        store = open();
+
+        Assertions.assertEquals(body('c'), store.read(1));
+        Assertions.assertEquals(body('b'), store.read(2));
+        Assertions.assertEquals(body('d'), store.read(3));
+        Assertions.assertTrue(store.matches(1, md5(body('c'))));
+
+        // appended after the records found by the scan
+        store.put(4, body('e'));
+        Assertions.assertEquals(body('d'), store.read(3));
+        Assertions.assertEquals(body('e'), store.read(4));
+    }
+
+    @Test
+    @DisplayName("Compaction moves the live records out of a segment of garbage and deletes it")
+    void compaction() throws IOException {
+        store = open();
+        store.put(1, body('a'));
+        store.put(2, body('b'));
+        store.put(3, body('c'));
+        // the first segment is full, these go to the second one and leave a third of the first live
+        store.put(1, body('d'));
+        store.put(2, body('e'));
+
+        store.compact();
+
+        Assertions.assertFalse(Files.exists(segment(0)));
+        Assertions.assertTrue(Files.exists(segment(1)));
+        Assertions.assertEquals(body('d'), store.read(1));
+        Assertions.assertEquals(body('e'), store.read(2));
+        Assertions.assertEquals(body('c'), store.read(3));
+
+        store.close();
+        store = open();
+
+        Assertions.assertEquals(body('d'), store.read(1));
+        Assertions.assertEquals(body('e'), store.read(2));
+        Assertions.assertEquals(body('c'), store.read(3));
+    }
+
+    @Test
+    @DisplayName("A record torn before its magic was written is ignored and overwritten")
+    void tornRecord() throws IOException {
+        store = open();
+        store.put(1, body('a'));
+        store.close();
+        store = null;
+
+        // all of a record but the magic, as left by a crash while it was being appended
+        byte[] body = body('b').getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_LENGTH + body.length)
+                .putInt(0)
+                .putLong(2)
+                .put(md5(body('b')))
+                .putInt(body.length)
+                .put(body)
+                .flip();
+        try (FileChannel channel = FileChannel.open(segment(0), StandardOpenOption.WRITE)) {
+            channel.write(record, HEADER_LENGTH + body.length);
+        }
+
+        store = open();
+
+        Assertions.assertEquals(body('a'), store.read(1));
+        Assertions.assertNull(store.read(2));
+
+        store.put(3, body('c'));
+        store.close();
+        store = open();
+
+        Assertions.assertNull(store.read(2));
+        Assertions.assertEquals(body('c'), store.read(3));
+    }
+
+    @Test
+    @DisplayName("A directory can't be opened by two stores at a time")
+    void locked() throws IOException {
+        store = open();
+
+        Assertions.assertThrows(IllegalStateException.class, this::open);
+
+        store.close();
+        store = open();
+        Assertions.assertNull(store.read(1));
+    }
+
+    private ArticleBodyStore open() {
+        try {
+            return new ArticleBodyStore(directory, SEGMENT_SIZE, new SimpleMeterRegistry());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Path segment(long number) {
+        return directory.resolve(String.format("%019d.segment", number));
+    }
+
+    private static String body(char letter) {
+        return String.valueOf(letter).repeat(72 - HEADER_LENGTH);
+    }
+
+    private static byte[] md5(String body) {
+        try {
+            return MessageDigest.getInstance("MD5").digest(body.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
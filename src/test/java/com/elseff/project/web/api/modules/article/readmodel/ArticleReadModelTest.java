@@ -0,0 +1,130 @@
+package com.elseff.project.web.api.modules.article.readmodel;
+
+import com.elseff.project.web.api.modules.article.event.ArticleChangeEvent;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.BDDMockito.given;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ArticleReadModelTest {
+
+    static final int AUTHORS = 5;
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    ArticleReadModel readModel;
+
+    /**
+     * Rows returned by the next query
+     */
+    List<ArticleView> rows;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        given(jdbcTemplate.query(anyString(), nullable(PreparedStatementSetter.class),
+                ArgumentMatchers.<RowMapper<ArticleView>>any()))
+                .willAnswer(invocation -> rows);
+        readModel = new ArticleReadModel(jdbcTemplate,
+                new StaticListableBeanFactory().getBeanProvider(ArticleBodyStore.class), new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Loaded articles are found by ascending id, all of them and by author")
+    void load() {
+        rows = List.of(view(5, 1), view(2, 2), view(9, 1), view(1, 2));
+        readModel.load();
+
+        Assertions.assertTrue(readModel.isLoaded());
+        Assertions.assertEquals(List.of(1L, 2L, 5L, 9L), ids(readModel.findAll()));
+        Assertions.assertEquals(List.of(5L, 9L), ids(readModel.findAllByAuthorId(1)));
+        Assertions.assertEquals(List.of(1L, 2L), ids(readModel.findAllByAuthorId(2)));
+        Assertions.assertEquals(List.of(), readModel.findAllByAuthorId(3));
+        Assertions.assertEquals(List.of(9L, 1L), ids(readModel.findAllByIdIn(List.of(9L, 4L, 1L))));
+    }
+
+    @Test
+    @DisplayName("Random creates, updates, author changes and deletes keep the sorted ids consistent")
+    void randomChanges() {
+        rows = List.of();
+        readModel.load();
+
+        Random random = new Random(42);
+        Map<Long, ArticleView> expected = new TreeMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            long id = 1 + random.nextInt(300);
+            int operation = random.nextInt(4);
+            if (operation == 0) {
+                rows = List.of();
+                expected.remove(id);
+                readModel.onArticleChange(new ArticleChangeEvent(ArticleChangeType.DELETED, id, 1L, "title", Set.of(), Set.of()));
+            } else if (operation == 1) {
+                // deleted in the database, found missing by the reload
+                rows = List.of();
+                expected.remove(id);
+                readModel.onArticleChange(new ArticleChangeEvent(ArticleChangeType.UPDATED, id, 1L, "title", Set.of(), Set.of()));
+            } else {
+                ArticleView view = view(id, 1 + random.nextInt(AUTHORS));
+                rows = List.of(view);
+                expected.put(id, view);
+                readModel.onArticleChange(new ArticleChangeEvent(ArticleChangeType.UPDATED, id,
+                        view.getAuthor().getId(), view.getTitle(), Set.of(), Set.of()));
+            }
+            if (i % 100 == 0)
+                assertConsistent(expected);
+        }
+        assertConsistent(expected);
+    }
+
+    private void assertConsistent(Map<Long, ArticleView> expected) {
+        Assertions.assertEquals(expected.size(), readModel.size());
+        Assertions.assertEquals(new ArrayList<>(expected.values()), readModel.findAll());
+        for (long authorId = 1; authorId <= AUTHORS; authorId++) {
+            long author = authorId;
+            Assertions.assertEquals(expected.values().stream()
+                            .filter(view -> view.getAuthor().getId() == author)
+                            .collect(Collectors.toList()),
+                    readModel.findAllByAuthorId(authorId), "author " + authorId);
+        }
+    }
+
+    private static List<Long> ids(List<ArticleView> views) {
+        return views.stream().map(ArticleView::getId).collect(Collectors.toList());
+    }
+
+    private static ArticleView view(long id, long authorId) {
+        return ArticleView.builder()
+                .id(id)
+                .title("article " + id)
+                .description("description")
+                .excerpt("excerpt")
+                .author(new AuthorView(authorId, "first", "last"))
+                .tags(Set.of())
+                .build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.elseff.project.web.api.modules.article.readmodel;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+class LongObjectMapTest {
+
+    @Test
+    @DisplayName("Random puts and removes on few keys, colliding in a small table, match a HashMap")
+    void againstHashMap() {
+        Random random = new Random(42);
+        LongObjectMap<String> map = new LongObjectMap<>();
+        Map<Long, String> expected = new HashMap<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            // few keys, so the table stays small and keys share their probe sequences
+            long key = random.nextInt(40) - 5;
+            if (random.nextInt(3) == 0) {
+                Assertions.assertEquals(expected.remove(key), map.remove(key), "remove " + key);
+            } else {
+                String value = "value " + i;
+                Assertions.assertEquals(expected.put(key, value), map.put(key, value), "put " + key);
+            }
+            if (i % 1000 == 0)
+                assertSameMappings(expected, map);
+        }
+        assertSameMappings(expected, map);
+    }
+
+    @Test
+    @DisplayName("A removed key is missing until it is put again, the others stay found")
+    void removeAndReinsert() {
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        for (long key = 0; key < 7; key++)
+            map.put(key, key);
+
+        for (long key = 0; key < 7; key++) {
+            Assertions.assertEquals(key, map.remove(key));
+            Assertions.assertNull(map.get(key));
+            Assertions.assertNull(map.remove(key));
+            for (long other = 0; other < 7; other++) {
+                if (other != key)
+                    Assertions.assertEquals(other < key ? other * 10 : other, map.get(other));
+            }
+            Assertions.assertNull(map.put(key, key * 10));
+            Assertions.assertEquals(key * 10, map.get(key));
+            Assertions.assertEquals(7, map.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Growing keeps every mapping, including 0 and extreme keys")
+    void resize() {
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        long[] extremes = {0, -1, Long.MIN_VALUE, Long.MAX_VALUE};
+        for (long key : extremes)
+            map.put(key, key);
+        for (long key = 1; key <= 10_000; key++)
+            map.put(key, key);
+
+        Assertions.assertEquals(10_000 + extremes.length, map.size());
+        for (long key : extremes)
+            Assertions.assertEquals(key, map.get(key));
+        for (long key = 1; key <= 10_000; key++)
+            Assertions.assertEquals(key, map.get(key));
+        Assertions.assertNull(map.get(10_001));
+
+        map.clear();
+        Assertions.assertEquals(0, map.size());
+        Assertions.assertNull(map.get(1));
+        map.put(1, 1L);
+        Assertions.assertEquals(1L, map.get(1));
+    }
+
+    private static void assertSameMappings(Map<Long, String> expected, LongObjectMap<String> map) {
+        Assertions.assertEquals(expected.size(), map.size());
+        for (long key = -5; key < 35; key++)
+            Assertions.assertEquals(expected.get(key), map.get(key), "get " + key);
+        Set<Long> keys = new HashSet<>();
+        map.forEachKey(keys::add);
+        Assertions.assertEquals(expected.keySet(), keys);
+    }
+}
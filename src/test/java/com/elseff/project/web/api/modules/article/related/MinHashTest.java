@@ -0,0 +1,74 @@
+package com.elseff.project.web.api.modules.article.related;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class MinHashTest {
+
+    static final String TEXT = "Spring Boot makes it easy to create stand-alone, production-grade Spring based " +
+            "applications that you can just run. Most applications need very little configuration";
+
+    static final String EDITED = "Spring Boot makes it easy to create stand-alone, production-grade Spring based " +
+            "applications that you can simply run. Most applications need very little configuration";
+
+    static final String UNRELATED = "Radix tries keep the shared prefixes of their keys once, every node holds " +
+            "the edges to its children sorted by their first character";
+
+    @Test
+    @DisplayName("A text without words has no signature")
+    void noWords() {
+        Assertions.assertNull(MinHash.signature("", ""));
+        Assertions.assertNull(MinHash.signature("!!!", " -- ... "));
+        Assertions.assertNotNull(MinHash.signature("", "word"));
+        Assertions.assertNotNull(MinHash.signature("two", "words"));
+    }
+
+    @Test
+    @DisplayName("Similarity follows the overlap of the texts")
+    void similarity() {
+        int[] text = MinHash.signature("title", TEXT);
+
+        Assertions.assertEquals(MinHash.HASHES, text.length);
+        Assertions.assertEquals(1.0, MinHash.similarity(text, MinHash.signature("title", TEXT)));
+        Assertions.assertEquals(1.0, MinHash.similarity(text, MinHash.signature("TITLE", TEXT.toUpperCase())));
+        double edited = MinHash.similarity(text, MinHash.signature("title", EDITED));
+        double unrelated = MinHash.similarity(text, MinHash.signature("title", UNRELATED));
+        Assertions.assertTrue(edited > 0.5, "edited " + edited);
+        Assertions.assertTrue(unrelated < 0.2, "unrelated " + unrelated);
+    }
+
+    @Test
+    @DisplayName("Signatures are stored and read back unchanged")
+    void bytes() {
+        int[] signature = MinHash.signature("title", TEXT);
+
+        Assertions.assertArrayEquals(signature, MinHash.fromBytes(MinHash.toBytes(signature)));
+        Assertions.assertEquals(MinHash.HASHES * Integer.BYTES, MinHash.toBytes(signature).length);
+    }
+
+    @Test
+    @DisplayName("The index finds similar articles, most similar first, without the article itself")
+    void lshIndex() {
+        LshIndex index = new LshIndex();
+        index.put(1, MinHash.signature("title", TEXT));
+        index.put(2, MinHash.signature("title", EDITED));
+        index.put(3, MinHash.signature("title", UNRELATED));
+        index.put(4, MinHash.signature("title", TEXT + " " + UNRELATED));
+
+        Assertions.assertEquals(List.of(2L, 4L), index.findSimilar(1, 10, 0.25));
+        Assertions.assertEquals(List.of(2L), index.findSimilar(1, 1, 0.25));
+        Assertions.assertEquals(List.of(), index.findSimilar(5, 10, 0.25));
+
+        index.remove(2);
+        Assertions.assertEquals(List.of(4L), index.findSimilar(1, 10, 0.25));
+
+        // replaced, the old buckets no longer lead to it
+        index.put(4, MinHash.signature("title", UNRELATED));
+        Assertions.assertEquals(List.of(), index.findSimilar(1, 10, 0.25));
+        Assertions.assertEquals(List.of(4L), index.findSimilar(3, 10, 0.25));
+        Assertions.assertEquals(3, index.size());
+    }
+}
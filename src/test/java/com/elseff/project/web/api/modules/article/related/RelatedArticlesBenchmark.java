@@ -0,0 +1,155 @@
+package com.elseff.project.web.api.modules.article.related;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup of related articles through the LSH index against a brute force scan with exact Jaccard similarity,
+ * on a generated corpus where a part of the articles are edited copies of others.
+ * The recall of the index against the brute force results is printed at setup.
+ * Run with {@code main} or through {@code org.openjdk.jmh.Main RelatedArticlesBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RelatedArticlesBenchmark {
+
+    private static final int VOCABULARY = 5000;
+
+    private static final int WORDS_PER_ARTICLE = 200;
+
+    private static final int LIMIT = 5;
+
+    private static final int RECALL_QUERIES = 500;
+
+    @Param({"10000", "50000"})
+    int articles;
+
+    List<Set<Long>> shingles;
+
+    LshIndex index;
+
+    long[] queries;
+
+    int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<String[]> corpus = generateCorpus(articles, random);
+
+        shingles = new ArrayList<>(articles);
+        index = new LshIndex();
+        for (int id = 0; id < articles; id++) {
+            Set<Long> articleShingles = MinHash.shingles(String.join(" ", corpus.get(id)));
+            shingles.add(articleShingles);
+            index.put(id, MinHash.signature(articleShingles));
+        }
+        queries = random.longs(1024, 0, articles).toArray();
+
+        printRecall();
+    }
+
+    @Benchmark
+    public List<Long> lsh() {
+        return index.findSimilar(nextQuery(), LIMIT, RelatedArticles.MIN_SIMILARITY);
+    }
+
+    @Benchmark
+    public List<Long> bruteForce() {
+        return bruteForce(nextQuery());
+    }
+
+    private long nextQuery() {
+        return queries[next++ & (queries.length - 1)];
+    }
+
+    List<Long> bruteForce(long query) {
+        Set<Long> queryShingles = shingles.get((int) query);
+        List<Map.Entry<Long, Double>> scored = new ArrayList<>();
+        for (int id = 0; id < shingles.size(); id++) {
+            if (id == query)
+                continue;
+            double similarity = jaccard(queryShingles, shingles.get(id));
+            if (similarity >= RelatedArticles.MIN_SIMILARITY)
+                scored.add(Map.entry((long) id, similarity));
+        }
+        scored.sort(Map.Entry.<Long, Double>comparingByValue().reversed());
+
+        List<Long> similar = new ArrayList<>();
+        for (int i = 0; i < LIMIT && i < scored.size(); i++)
+            similar.add(scored.get(i).getKey());
+        return similar;
+    }
+
+    private void printRecall() {
+        int expected = 0;
+        int found = 0;
+        for (int i = 0; i < RECALL_QUERIES; i++) {
+            long query = queries[i % queries.length];
+            List<Long> exact = bruteForce(query);
+            Set<Long> approximate = new HashSet<>(index.findSimilar(query, LIMIT, RelatedArticles.MIN_SIMILARITY));
+
+            expected += exact.size();
+            found += exact.stream().filter(approximate::contains).count();
+        }
+        System.out.printf("%nrecall@%d for %d articles: %.3f (%d of %d)%n",
+                LIMIT, articles, expected == 0 ? 1.0 : (double) found / expected, found, expected);
+    }
+
+    private static double jaccard(Set<Long> first, Set<Long> second) {
+        Set<Long> smaller = first.size() < second.size() ? first : second;
+        Set<Long> larger = smaller == first ? second : first;
+        int intersection = 0;
+        for (Long shingle : smaller) {
+            if (larger.contains(shingle))
+                intersection++;
+        }
+        return (double) intersection / (first.size() + second.size() - intersection);
+    }
+
+    /**
+     * Every third article is a copy of an earlier one with 5 to 30 percent of the words replaced
+     */
+    static List<String[]> generateCorpus(int size, Random random) {
+        List<String[]> corpus = new ArrayList<>(size);
+        for (int id = 0; id < size; id++) {
+            String[] words = new String[WORDS_PER_ARTICLE];
+            if (id > 0 && id % 3 == 0) {
+                String[] original = corpus.get(random.nextInt(id));
+                double replaced = 0.05 + random.nextDouble() * 0.25;
+                for (int i = 0; i < words.length; i++)
+                    words[i] = random.nextDouble() < replaced ? word(random) : original[i];
+            } else {
+                for (int i = 0; i < words.length; i++)
+                    words[i] = word(random);
+            }
+            corpus.add(words);
+        }
+        return corpus;
+    }
+
+    private static String word(Random random) {
+        return "w" + random.nextInt(VOCABULARY);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RelatedArticlesBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
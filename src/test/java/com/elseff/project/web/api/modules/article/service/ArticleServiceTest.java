@@ -3,15 +3,21 @@ package com.elseff.project.web.api.modules.article.service;
 import com.elseff.project.persistense.ArticleEntity;
 import com.elseff.project.persistense.RoleEntity;
 import com.elseff.project.persistense.UserEntity;
+import com.elseff.project.persistense.dao.ArticleMinHashRepository;
 import com.elseff.project.persistense.dao.ArticleRepository;
+import com.elseff.project.persistense.dao.CommentRepository;
+import com.elseff.project.persistense.dao.TagRepository;
 import com.elseff.project.persistense.dao.UserRepository;
 import com.elseff.project.security.SecurityUtils;
 import com.elseff.project.security.UserDetailsImpl;
 import com.elseff.project.web.api.modules.article.dto.ArticleCreationRequest;
 import com.elseff.project.web.api.modules.article.dto.ArticleDto;
 import com.elseff.project.web.api.modules.article.dto.ArticleUpdateRequest;
+import com.elseff.project.web.api.modules.article.event.ArticleDescriptionChangeEvent;
 import com.elseff.project.web.api.modules.article.exception.ArticleNotFoundException;
 import com.elseff.project.web.api.modules.article.exception.SomeoneElseArticleException;
+import com.elseff.project.web.api.modules.article.tag.ArticleTagIndex;
+import com.elseff.project.web.api.modules.article.tag.TagMatchMode;
 import com.elseff.project.web.api.modules.auth.service.AuthService;
 import lombok.AccessLevel;
 import lombok.Cleanup;
@@ -22,6 +28,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Arrays;
@@ -30,7 +37,10 @@ import java.util.Optional;
 import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.Mockito.*;
@@ -50,6 +60,21 @@ class ArticleServiceTest {
     @Mock
     SecurityUtils securityUtils;
 
+    @Mock
+    TagRepository tagRepository;
+
+    @Mock
+    CommentRepository commentRepository;
+
+    @Mock
+    ArticleMinHashRepository articleMinHashRepository;
+
+    @Mock
+    ArticleTagIndex articleTagIndex;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -94,24 +119,59 @@ class ArticleServiceTest {
         verifyNoMoreInteractions(articleRepository);
     }
 
+    @Test
+    @DisplayName("Find articles by tags keeps the order of the index")
+    void findAllByTags() {
+        given(articleTagIndex.findIds(anySet(), eq(TagMatchMode.ALL), anyLong(), anyInt())).willReturn(List.of(3L, 1L, 2L));
+        given(articleRepository.findAllByIdIn(anyList())).willReturn(List.of(
+                ArticleEntity.builder().id(1L).build(),
+                ArticleEntity.builder().id(2L).build(),
+                ArticleEntity.builder().id(3L).build()
+        ));
+
+        List<ArticleEntity> articles = articleService.findAllByTags(Set.of(" Java "), TagMatchMode.ALL, 0, 20);
+
+        Assertions.assertEquals(List.of(3L, 1L, 2L), articles.stream().map(ArticleEntity::getId).toList());
+
+        verify(articleTagIndex, times(1)).findIds(Set.of("java"), TagMatchMode.ALL, 0L, 20);
+        verify(articleRepository, times(1)).findAllByIdIn(anyList());
+        verifyNoMoreInteractions(articleRepository);
+    }
+
+    @Test
+    @DisplayName("Find articles with description by ids keeps the requested order")
+    void findAllWithDescriptionByIdIn() {
+        given(articleRepository.findAllWithDescriptionByIdIn(anyList())).willReturn(List.of(
+                ArticleEntity.builder().id(1L).build(),
+                ArticleEntity.builder().id(3L).build()
+        ));
+
+        List<ArticleEntity> articles = articleService.findAllWithDescriptionByIdIn(List.of(3L, 2L, 1L));
+
+        Assertions.assertEquals(List.of(3L, 1L), articles.stream().map(ArticleEntity::getId).toList());
+
+        verify(articleRepository, times(1)).findAllWithDescriptionByIdIn(List.of(3L, 2L, 1L));
+        verifyNoMoreInteractions(articleRepository);
+    }
+
     @Test
     @DisplayName("Find article")
     void findById() {
         ArticleEntity articleFromDb = new ArticleEntity();
 
-        given(articleRepository.findById(anyLong())).willReturn(Optional.of(articleFromDb));
+        given(articleRepository.findWithDescriptionById(anyLong())).willReturn(Optional.of(articleFromDb));
 
         ArticleEntity article = articleService.findById(1L);
         Assertions.assertNotNull(article);
 
-        verify(articleRepository, times(1)).findById(anyLong());
+        verify(articleRepository, times(1)).findWithDescriptionById(anyLong());
         verifyNoMoreInteractions(articleRepository);
     }
 
     @Test
     @DisplayName("Find article if article is not found")
     void findById_If_Article_Is_Not_Found() {
-        given(articleRepository.findById(anyLong())).willReturn(Optional.empty());
+        given(articleRepository.findWithDescriptionById(anyLong())).willReturn(Optional.empty());
 
         ArticleNotFoundException articleNotFoundException = Assertions.assertThrows(ArticleNotFoundException.class, () -> articleService.findById(1L));
 
@@ -120,7 +180,7 @@ class ArticleServiceTest {
 
         Assertions.assertEquals(expectedMessage, actualMessage);
 
-        verify(articleRepository, times(1)).findById(anyLong());
+        verify(articleRepository, times(1)).findWithDescriptionById(anyLong());
         verifyNoMoreInteractions(articleRepository);
     }
 
@@ -144,6 +204,7 @@ class ArticleServiceTest {
 
         articleService.deleteArticleById(1L);
 
+        verify(commentRepository, times(1)).deleteAllByArticleId(1L);
         verify(articleRepository, times(1)).deleteById(anyLong());
         verify(articleRepository, times(1)).findById(anyLong());
         verify(securityUtils, times(1)).userIsAdmin(any(UserDetails.class));
@@ -182,6 +243,7 @@ class ArticleServiceTest {
         verify(securityUtils, times(1)).userIsAdmin(any(UserDetails.class));
         verifyNoMoreInteractions(articleRepository);
         verifyNoMoreInteractions(securityUtils);
+        verifyNoInteractions(commentRepository);
         serviceMockedStatic.verify(AuthService::getCurrentUser, times(1));
         serviceMockedStatic.verifyNoMoreInteractions();
     }
@@ -223,12 +285,40 @@ class ArticleServiceTest {
 
         verify(articleRepository, times(1)).save(any(ArticleEntity.class));
         verify(userRepository, times(1)).getByEmail(anyString());
+        verify(eventPublisher, times(1)).publishEvent(any(ArticleDescriptionChangeEvent.class));
         verifyNoMoreInteractions(articleRepository);
         verifyNoMoreInteractions(userRepository);
         serviceMockedStatic.verify(AuthService::getCurrentUser, times(1));
         serviceMockedStatic.verifyNoMoreInteractions();
     }
 
+    @Test
+    @DisplayName("Add article fills excerpt, word count and reading time")
+    void addArticle_Fills_Excerpt() {
+        @Cleanup
+        MockedStatic<AuthService> serviceMockedStatic = Mockito.mockStatic(AuthService.class);
+
+        serviceMockedStatic.when(AuthService::getCurrentUser).thenReturn(getUserDetails());
+        given(articleRepository.save(any(ArticleEntity.class))).willAnswer(invocation -> invocation.getArgument(0));
+        given(userRepository.getByEmail(anyString())).willReturn(new UserEntity());
+
+        String description = "word ".repeat(450);
+        ArticleCreationRequest article = ArticleCreationRequest.builder()
+                .title("Test Title")
+                .description(description)
+                .build();
+
+        ArticleEntity addedArticle = articleService.addArticle(article);
+
+        int expectedWordCount = 450;
+        int expectedReadingTime = 3;
+        String expectedExcerpt = "word ".repeat(40).strip() + "…";
+
+        Assertions.assertEquals(expectedWordCount, addedArticle.getWordCount());
+        Assertions.assertEquals(expectedReadingTime, addedArticle.getReadingTime());
+        Assertions.assertEquals(expectedExcerpt, addedArticle.getExcerpt());
+    }
+
     @Test
     @DisplayName("Update article")
     void updateArticle() {
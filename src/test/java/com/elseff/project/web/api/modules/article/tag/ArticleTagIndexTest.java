@@ -0,0 +1,61 @@
+package com.elseff.project.web.api.modules.article.tag;
+
+import com.elseff.project.web.api.modules.article.event.ArticleChangeEvent;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+class ArticleTagIndexTest {
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    ArticleTagIndex tagIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        tagIndex = new ArticleTagIndex(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("An updated article moves from its previous tags to the new ones")
+    void update() {
+        tagIndex.onArticleChange(change(ArticleChangeType.CREATED, 1L, Set.of("java", "spring"), Set.of()));
+        tagIndex.onArticleChange(change(ArticleChangeType.CREATED, 2L, Set.of("java"), Set.of()));
+
+        tagIndex.onArticleChange(change(ArticleChangeType.UPDATED, 1L, Set.of("kotlin"), Set.of("java", "spring")));
+
+        Assertions.assertEquals(List.of(2L), find("java"));
+        Assertions.assertEquals(List.of(), find("spring"));
+        Assertions.assertEquals(List.of(1L), find("kotlin"));
+    }
+
+    @Test
+    @DisplayName("A deleted article is removed from its last known tags")
+    void delete() {
+        tagIndex.onArticleChange(change(ArticleChangeType.CREATED, 1L, Set.of("java", "spring"), Set.of()));
+        tagIndex.onArticleChange(change(ArticleChangeType.CREATED, 2L, Set.of("java"), Set.of()));
+
+        tagIndex.onArticleChange(change(ArticleChangeType.DELETED, 1L, Set.of("java", "spring"), Set.of("java", "spring")));
+
+        Assertions.assertEquals(List.of(2L), find("java"));
+        Assertions.assertEquals(List.of(), find("spring"));
+    }
+
+    private List<Long> find(String tag) {
+        return tagIndex.findIds(Set.of(tag), TagMatchMode.ANY, 0, 10);
+    }
+
+    private static ArticleChangeEvent change(ArticleChangeType type, Long id, Set<String> tags, Set<String> previousTags) {
+        return new ArticleChangeEvent(type, id, 1L, "title", tags, previousTags);
+    }
+}
@@ -0,0 +1,111 @@
+package com.elseff.project.web.api.modules.article.trending;
+
+import com.elseff.project.persistense.ArticleEntity;
+import com.elseff.project.persistense.UserEntity;
+import com.elseff.project.web.api.modules.article.dto.ArticleDto;
+import com.elseff.project.web.api.modules.article.dto.mapper.ArticleDtoMapper;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeEvent;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeType;
+import com.elseff.project.web.api.modules.article.service.ArticleService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class TrendingArticlesTest {
+
+    static final int SIZE = 3;
+
+    @Mock
+    ArticleService articleService;
+
+    TrendingArticles trendingArticles;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        given(articleService.findAllByIdIn(anyList())).willAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(TrendingArticlesTest::article).collect(Collectors.toList());
+        });
+        trendingArticles = new TrendingArticles(articleService, new ArticleDtoMapper(), new SimpleMeterRegistry(),
+                Duration.ofDays(1000), SIZE, 10_000);
+    }
+
+    @Test
+    @DisplayName("An article read above the lowest of the top gets into it")
+    void overtakes() {
+        read(1L, 10);
+        read(2L, 9);
+        read(3L, 8);
+        read(4L, 1);
+        trendingArticles.refresh();
+        Assertions.assertEquals(List.of(1L, 2L, 3L), ids());
+
+        read(4L, 10);
+        trendingArticles.refresh();
+
+        Assertions.assertEquals(List.of(4L, 1L, 2L), ids());
+    }
+
+    @Test
+    @DisplayName("The articles are not loaded again while the ranking doesn't change")
+    void unchanged() {
+        read(1L, 10);
+        read(2L, 9);
+        read(3L, 8);
+        trendingArticles.refresh();
+        read(4L, 1);
+        trendingArticles.refresh();
+
+        Assertions.assertEquals(List.of(1L, 2L, 3L), ids());
+        verify(articleService, times(1)).findAllByIdIn(anyList());
+    }
+
+    @Test
+    @DisplayName("A deleted article is replaced by the next one, even if it is not a candidate")
+    void deleted() {
+        read(1L, 10);
+        read(2L, 9);
+        read(3L, 8);
+        read(4L, 1);
+        trendingArticles.refresh();
+        trendingArticles.refresh();
+
+        trendingArticles.onArticleChange(new ArticleChangeEvent(ArticleChangeType.DELETED, 1L, 1L, "title",
+                Set.of(), Set.of()));
+        trendingArticles.refresh();
+
+        Assertions.assertEquals(List.of(2L, 3L, 4L), ids());
+    }
+
+    private void read(Long articleId, int times) {
+        for (int i = 0; i < times; i++)
+            trendingArticles.recordRead(articleId);
+    }
+
+    private List<Long> ids() {
+        return trendingArticles.getSnapshot().stream().map(ArticleDto::getId).collect(Collectors.toList());
+    }
+
+    private static ArticleEntity article(Long id) {
+        return ArticleEntity.builder()
+                .id(id)
+                .title("title")
+                .author(UserEntity.builder().id(1L).build())
+                .build();
+    }
+}
@@ -11,6 +11,7 @@ import com.elseff.project.web.api.modules.auth.dto.AuthResponse;
 import com.elseff.project.web.api.modules.auth.exception.AuthUserNotFoundException;
 import com.elseff.project.web.api.modules.auth.exception.AuthenticationException;
 import com.elseff.project.web.api.modules.user.dto.mapper.UserDtoMapper;
+import com.elseff.project.web.api.modules.user.event.UserChangeEvent;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.junit.jupiter.api.Assertions;
@@ -19,8 +20,10 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
@@ -46,6 +49,9 @@ class AuthServiceTest {
     @Mock
     JwtProvider jwtProvider;
 
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -98,6 +104,7 @@ class AuthServiceTest {
         verify(passwordEncoder, times(1)).encode(authRegisterRequest.getPassword());
         verify(roleRepository, times(1)).getByName(anyString());
         verify(jwtProvider, times(1)).generateToken(anyString());
+        verify(eventPublisher, times(1)).publishEvent(any(UserChangeEvent.class));
         verifyNoMoreInteractions(userRepository);
         verifyNoMoreInteractions(userDtoMapper);
         verifyNoMoreInteractions(passwordEncoder);
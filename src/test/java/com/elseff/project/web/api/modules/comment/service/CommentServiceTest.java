@@ -0,0 +1,213 @@
+package com.elseff.project.web.api.modules.comment.service;
+
+import com.elseff.project.persistense.ArticleEntity;
+import com.elseff.project.persistense.CommentEntity;
+import com.elseff.project.persistense.RoleEntity;
+import com.elseff.project.persistense.UserEntity;
+import com.elseff.project.persistense.dao.ArticleRepository;
+import com.elseff.project.persistense.dao.CommentRepository;
+import com.elseff.project.persistense.dao.UserRepository;
+import com.elseff.project.security.SecurityUtils;
+import com.elseff.project.security.UserDetailsImpl;
+import com.elseff.project.web.api.modules.article.exception.ArticleNotFoundException;
+import com.elseff.project.web.api.modules.auth.service.AuthService;
+import com.elseff.project.web.api.modules.comment.dto.CommentCreationRequest;
+import com.elseff.project.web.api.modules.comment.event.CommentCountChangeEvent;
+import com.elseff.project.web.api.modules.comment.exception.CommentThreadTooDeepException;
+import com.elseff.project.web.api.modules.comment.exception.SomeoneElseCommentException;
+import com.elseff.project.web.api.modules.comment.util.CommentPath;
+import lombok.Cleanup;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+class CommentServiceTest {
+
+    @InjectMocks
+    CommentService commentService;
+
+    @Mock
+    CommentRepository commentRepository;
+
+    @Mock
+    ArticleRepository articleRepository;
+
+    @Mock
+    UserRepository userRepository;
+
+    @Mock
+    SecurityUtils securityUtils;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    @DisplayName("Find comments of an article")
+    void findAllByArticleId() {
+        given(commentRepository.findAllByPathBetween(anyLong(), anyString(), anyString(), any(Pageable.class)))
+                .willReturn(List.of(new CommentEntity(), new CommentEntity()));
+
+        List<CommentEntity> comments = commentService.findAllByArticleId(1L, null, 20);
+
+        Assertions.assertEquals(2, comments.size());
+
+        verify(commentRepository, times(1))
+                .findAllByPathBetween(eq(1L), eq(CommentPath.START), eq(CommentPath.END), any(Pageable.class));
+        verifyNoMoreInteractions(commentRepository);
+    }
+
+    @Test
+    @DisplayName("Find replies to a comment")
+    void findAllReplies() {
+        String path = CommentPath.of(null, 5L);
+        given(commentRepository.findByIdAndArticleId(anyLong(), anyLong()))
+                .willReturn(Optional.of(CommentEntity.builder().id(5L).path(path).build()));
+
+        commentService.findAllReplies(1L, 5L, null, 20);
+
+        verify(commentRepository, times(1)).findByIdAndArticleId(5L, 1L);
+        verify(commentRepository, times(1))
+                .findAllByPathBetween(eq(1L), eq(path), eq(CommentPath.subtreeEnd(path)), any(Pageable.class));
+        verifyNoMoreInteractions(commentRepository);
+    }
+
+    @Test
+    @DisplayName("Add reply to a comment")
+    void addComment_Reply() {
+        @Cleanup
+        MockedStatic<AuthService> serviceMockedStatic = Mockito.mockStatic(AuthService.class);
+        serviceMockedStatic.when(AuthService::getCurrentUser).thenReturn(getUserDetails());
+        String parentPath = CommentPath.of(null, 5L);
+        given(commentRepository.findByIdAndArticleId(anyLong(), anyLong()))
+                .willReturn(Optional.of(CommentEntity.builder().id(5L).path(parentPath).build()));
+        given(articleRepository.addToCommentCount(anyLong(), anyInt())).willReturn(1);
+        given(articleRepository.getById(anyLong())).willReturn(new ArticleEntity());
+        given(userRepository.getByEmail(anyString())).willReturn(getUserEntity());
+        given(commentRepository.nextId()).willReturn(7L);
+        given(commentRepository.save(any(CommentEntity.class))).willAnswer(invocation -> invocation.getArgument(0));
+
+        CommentEntity comment = commentService.addComment(1L, new CommentCreationRequest("test", 5L));
+
+        Assertions.assertEquals(7L, comment.getId());
+        Assertions.assertEquals(parentPath + "." + "0000000000000000007", comment.getPath());
+        Assertions.assertEquals(5L, CommentPath.parentId(comment.getPath()));
+        Assertions.assertEquals(1, CommentPath.depth(comment.getPath()));
+        Assertions.assertTrue(comment.isNew());
+
+        verify(articleRepository, times(1)).addToCommentCount(1L, 1);
+        verify(commentRepository, times(1)).save(any(CommentEntity.class));
+        verify(eventPublisher, times(1)).publishEvent(any(CommentCountChangeEvent.class));
+    }
+
+    @Test
+    @DisplayName("Add comment if article does not exist")
+    void addComment_If_Article_Does_Not_Exist() {
+        @Cleanup
+        MockedStatic<AuthService> serviceMockedStatic = Mockito.mockStatic(AuthService.class);
+        serviceMockedStatic.when(AuthService::getCurrentUser).thenReturn(getUserDetails());
+        given(articleRepository.addToCommentCount(anyLong(), anyInt())).willReturn(0);
+
+        Assertions.assertThrows(ArticleNotFoundException.class,
+                () -> commentService.addComment(1L, new CommentCreationRequest("test", null)));
+
+        verify(commentRepository, never()).save(any(CommentEntity.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Add reply deeper than allowed")
+    void addComment_If_Thread_Is_Too_Deep() {
+        @Cleanup
+        MockedStatic<AuthService> serviceMockedStatic = Mockito.mockStatic(AuthService.class);
+        serviceMockedStatic.when(AuthService::getCurrentUser).thenReturn(getUserDetails());
+        String path = null;
+        for (long id = 1; id < CommentPath.MAX_DEPTH + 1; id++)
+            path = CommentPath.of(path, id);
+        given(commentRepository.findByIdAndArticleId(anyLong(), anyLong()))
+                .willReturn(Optional.of(CommentEntity.builder().id(10L).path(path).build()));
+
+        Assertions.assertThrows(CommentThreadTooDeepException.class,
+                () -> commentService.addComment(1L, new CommentCreationRequest("test", 10L)));
+
+        verifyNoInteractions(articleRepository);
+    }
+
+    @Test
+    @DisplayName("Delete comment with replies")
+    void deleteComment() {
+        @Cleanup
+        MockedStatic<AuthService> serviceMockedStatic = Mockito.mockStatic(AuthService.class);
+        serviceMockedStatic.when(AuthService::getCurrentUser).thenReturn(getUserDetails());
+        given(securityUtils.userIsAdmin(any(UserDetails.class))).willReturn(false);
+        String path = CommentPath.of(null, 5L);
+        given(commentRepository.findByIdAndArticleId(anyLong(), anyLong()))
+                .willReturn(Optional.of(CommentEntity.builder().id(5L).path(path).author(getUserEntity()).build()));
+        given(commentRepository.deleteAllByPathBetween(anyLong(), anyString(), anyString())).willReturn(3);
+
+        commentService.deleteComment(1L, 5L);
+
+        verify(commentRepository, times(1)).deleteAllByPathBetween(1L, path, CommentPath.subtreeEnd(path));
+        verify(articleRepository, times(1)).addToCommentCount(1L, -3);
+        verify(eventPublisher, times(1)).publishEvent(any(CommentCountChangeEvent.class));
+        verifyNoMoreInteractions(articleRepository);
+    }
+
+    @Test
+    @DisplayName("Delete someone else's comment")
+    void deleteComment_If_Someone_Else_Comment() {
+        @Cleanup
+        MockedStatic<AuthService> serviceMockedStatic = Mockito.mockStatic(AuthService.class);
+        serviceMockedStatic.when(AuthService::getCurrentUser).thenReturn(getUserDetails());
+        given(securityUtils.userIsAdmin(any(UserDetails.class))).willReturn(false);
+        given(commentRepository.findByIdAndArticleId(anyLong(), anyLong()))
+                .willReturn(Optional.of(CommentEntity.builder().id(5L).path(CommentPath.of(null, 5L)).build()));
+
+        Assertions.assertThrows(SomeoneElseCommentException.class, () -> commentService.deleteComment(1L, 5L));
+
+        verify(commentRepository, times(1)).findByIdAndArticleId(5L, 1L);
+        verifyNoMoreInteractions(commentRepository);
+        verifyNoInteractions(articleRepository);
+    }
+
+    @NotNull
+    private UserDetailsImpl getUserDetails() {
+        return UserDetailsImpl.builder()
+                .email("test@test.com")
+                .password("test")
+                .grantedAuthorities(Set.of(new RoleEntity("ROLE_USER")))
+                .build();
+    }
+
+    @NotNull
+    private UserEntity getUserEntity() {
+        return UserEntity.builder()
+                .id(1L)
+                .firstName("test")
+                .lastName("test")
+                .email("test@test.com")
+                .country("test")
+                .password("test")
+                .roles(Set.of(new RoleEntity("ROLE_USER")))
+                .build();
+    }
+}
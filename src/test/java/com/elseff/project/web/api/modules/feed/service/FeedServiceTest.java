@@ -0,0 +1,138 @@
+package com.elseff.project.web.api.modules.feed.service;
+
+import com.elseff.project.persistense.ArticleEntity;
+import com.elseff.project.persistense.UserEntity;
+import com.elseff.project.persistense.dao.FeedRepository;
+import com.elseff.project.persistense.dao.FollowRepository;
+import com.elseff.project.persistense.dao.UserRepository;
+import com.elseff.project.security.UserDetailsImpl;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeEvent;
+import com.elseff.project.web.api.modules.article.event.ArticleChangeType;
+import com.elseff.project.web.api.modules.article.service.ArticleService;
+import com.elseff.project.web.api.modules.auth.service.AuthService;
+import com.elseff.project.web.api.modules.user.event.FollowChangeEvent;
+import lombok.Cleanup;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+class FeedServiceTest {
+
+    static final int MAX_LENGTH = 1000;
+
+    static final int FAN_OUT_THRESHOLD = 100;
+
+    FeedService feedService;
+
+    @Mock
+    FeedRepository feedRepository;
+
+    @Mock
+    FollowRepository followRepository;
+
+    @Mock
+    UserRepository userRepository;
+
+    @Mock
+    ArticleService articleService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        feedService = new FeedService(feedRepository, followRepository, userRepository, articleService,
+                MAX_LENGTH, FAN_OUT_THRESHOLD);
+    }
+
+    @Test
+    @DisplayName("Find feed of the current user")
+    void findFeed() {
+        @Cleanup
+        MockedStatic<AuthService> serviceMockedStatic = Mockito.mockStatic(AuthService.class);
+        serviceMockedStatic.when(AuthService::getCurrentUser).thenReturn(UserDetailsImpl.builder()
+                .email("test@test.com")
+                .password("test")
+                .grantedAuthorities(Set.of())
+                .build());
+        given(userRepository.getByEmail(anyString())).willReturn(UserEntity.builder().id(1L).build());
+        given(feedRepository.findPage(anyLong(), anyLong(), anyInt())).willReturn(List.of(5L, 3L));
+        given(articleService.findAllByIdIn(anyList())).willReturn(List.of(new ArticleEntity(), new ArticleEntity()));
+
+        List<ArticleEntity> feed = feedService.findFeed(null, 20);
+
+        Assertions.assertEquals(2, feed.size());
+
+        verify(feedRepository, times(1)).findPage(1L, Long.MAX_VALUE, 20);
+        verify(articleService, times(1)).findAllByIdIn(List.of(5L, 3L));
+        verifyNoMoreInteractions(feedRepository);
+    }
+
+    @Test
+    @DisplayName("New article is pushed to the feeds of the followers")
+    void onArticleChange_Fans_Out() {
+        given(followRepository.countFollowers(anyLong())).willReturn(FAN_OUT_THRESHOLD - 1);
+
+        feedService.onArticleChange(new ArticleChangeEvent(ArticleChangeType.CREATED, 10L, 1L, "test", Set.of(), Set.of()));
+
+        verify(feedRepository, times(1)).fanOut(10L, 1L, MAX_LENGTH);
+        verifyNoMoreInteractions(feedRepository);
+    }
+
+    @Test
+    @DisplayName("New article of an author with too many followers is not pushed")
+    void onArticleChange_If_Too_Many_Followers() {
+        given(followRepository.countFollowers(anyLong())).willReturn(FAN_OUT_THRESHOLD);
+
+        feedService.onArticleChange(new ArticleChangeEvent(ArticleChangeType.CREATED, 10L, 1L, "test", Set.of(), Set.of()));
+
+        verifyNoInteractions(feedRepository);
+    }
+
+    @Test
+    @DisplayName("Updated article is not pushed again")
+    void onArticleChange_If_Updated() {
+        feedService.onArticleChange(new ArticleChangeEvent(ArticleChangeType.UPDATED, 10L, 1L, "test", Set.of(), Set.of()));
+
+        verifyNoInteractions(followRepository);
+        verifyNoInteractions(feedRepository);
+    }
+
+    @Test
+    @DisplayName("Following an author backfills the feed")
+    void onFollowChange_Follow() {
+        feedService.onFollowChange(new FollowChangeEvent(1L, 2L, true));
+
+        verify(feedRepository, times(1)).backfill(1L, 2L, MAX_LENGTH);
+        verifyNoMoreInteractions(feedRepository);
+    }
+
+    @Test
+    @DisplayName("Following an author with too many followers backfills his pushed articles")
+    void onFollowChange_Follow_If_Too_Many_Followers() {
+        given(followRepository.countFollowers(anyLong())).willReturn(FAN_OUT_THRESHOLD);
+
+        feedService.onFollowChange(new FollowChangeEvent(1L, 2L, true));
+
+        verify(feedRepository, times(1)).backfill(1L, 2L, MAX_LENGTH);
+        verifyNoMoreInteractions(feedRepository);
+    }
+
+    @Test
+    @DisplayName("Unfollowing an author removes his articles from the feed")
+    void onFollowChange_Unfollow() {
+        feedService.onFollowChange(new FollowChangeEvent(1L, 2L, false));
+
+        verify(feedRepository, times(1)).removeAuthor(1L, 2L);
+        verifyNoMoreInteractions(feedRepository);
+    }
+}
@@ -26,6 +26,7 @@ import org.springframework.security.test.context.support.WithUserDetails;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
@@ -39,6 +40,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -125,6 +127,45 @@ class UserControllerTest {
         Assertions.assertEquals(expectedListSize, actualListSize);
     }
 
+    @Test
+    @DisplayName("Get all users streamed")
+    @WithUserDetails(value = "user@user.com", setupBefore = TestExecutionEvent.TEST_EXECUTION)
+    void getAllUsersStreamed() throws Exception {
+        List<UserDto> users = getAllStreamed();
+
+        int expectedListSize = 2;
+        int actualListSize = users.size();
+
+        Assertions.assertEquals(expectedListSize, actualListSize);
+        //a user doesn't see the emails and the roles of the others
+        users.forEach(user -> {
+            Assertions.assertNotNull(user.getFirstName());
+            Assertions.assertNull(user.getEmail());
+            Assertions.assertNull(user.getRoles());
+        });
+    }
+
+    @Test
+    @DisplayName("Get all users streamed if current user is admin")
+    @WithUserDetails(value = "admin@admin.com", setupBefore = TestExecutionEvent.TEST_EXECUTION)
+    void getAllUsersStreamed_If_Current_User_Is_Admin() throws Exception {
+        List<UserDto> users = getAllStreamed();
+
+        int expectedListSize = 2;
+        int actualListSize = users.size();
+
+        Assertions.assertEquals(expectedListSize, actualListSize);
+        users.forEach(user -> {
+            Assertions.assertNotNull(user.getEmail());
+            Assertions.assertNotNull(user.getRegistrationDate());
+            Assertions.assertFalse(user.getRoles().isEmpty());
+        });
+        Assertions.assertEquals(2, users.stream()
+                .filter(user -> user.getEmail().equals(getAdmin().getEmail()))
+                .findFirst().orElseThrow()
+                .getRoles().size());
+    }
+
     @Test
     @DisplayName("Get specific user")
     @WithUserDetails(value = "user@user.com", setupBefore = TestExecutionEvent.TEST_EXECUTION)
@@ -387,6 +428,25 @@ class UserControllerTest {
         Assertions.assertEquals(expectedMeEmail, actualMeEmail);
     }
 
+    private List<UserDto> getAllStreamed() throws Exception {
+        MockHttpServletRequestBuilder request = get(endPoint)
+                .param("stream", "true")
+                .characterEncoding(StandardCharsets.UTF_8)
+                .contentType(MediaType.APPLICATION_JSON);
+
+        //the list is written on the async request thread
+        MvcResult result = mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String response = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        return objectMapper.readValue(response, new TypeReference<>() {
+        });
+    }
+
     private UserEntity getUser() {
         RoleEntity roleUser = roleRepository.getByName("ROLE_USER");
         return UserEntity.builder()
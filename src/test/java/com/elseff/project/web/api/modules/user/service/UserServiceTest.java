@@ -2,12 +2,16 @@ package com.elseff.project.web.api.modules.user.service;
 
 import com.elseff.project.persistense.RoleEntity;
 import com.elseff.project.persistense.UserEntity;
+import com.elseff.project.persistense.dao.FollowRepository;
 import com.elseff.project.persistense.dao.UserRepository;
 import com.elseff.project.security.SecurityUtils;
 import com.elseff.project.security.UserDetailsImpl;
 import com.elseff.project.web.api.modules.auth.service.AuthService;
 import com.elseff.project.web.api.modules.user.dto.UserDto;
 import com.elseff.project.web.api.modules.user.dto.UserUpdateRequest;
+import com.elseff.project.web.api.modules.user.event.FollowChangeEvent;
+import com.elseff.project.web.api.modules.user.event.UserChangeEvent;
+import com.elseff.project.web.api.modules.user.exception.SelfFollowException;
 import com.elseff.project.web.api.modules.user.exception.SomeoneElseUserProfileException;
 import com.elseff.project.web.api.modules.user.exception.UserNotFoundException;
 import lombok.AccessLevel;
@@ -19,6 +23,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Arrays;
@@ -42,6 +47,12 @@ class UserServiceTest {
     @Mock
     SecurityUtils securityUtils;
 
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    FollowRepository followRepository;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -67,6 +78,22 @@ class UserServiceTest {
         verifyNoMoreInteractions(userRepository);
     }
 
+    @Test
+    @DisplayName("Find users by ids keeps the requested order")
+    void findAllByIdIn() {
+        given(userRepository.findAllByIdIn(anyList())).willReturn(List.of(
+                UserEntity.builder().id(1L).build(),
+                UserEntity.builder().id(3L).build()
+        ));
+
+        List<UserEntity> users = service.findAllByIdIn(List.of(3L, 2L, 1L));
+
+        Assertions.assertEquals(List.of(3L, 1L), users.stream().map(UserEntity::getId).toList());
+
+        verify(userRepository, times(1)).findAllByIdIn(List.of(3L, 2L, 1L));
+        verifyNoMoreInteractions(userRepository);
+    }
+
     @Test
     @DisplayName("Get user by id")
     void getUserById() {
@@ -117,6 +144,8 @@ class UserServiceTest {
 
         service.deleteUser(1L);
 
+        verify(followRepository, times(1)).unfollowAll(1L);
+        verify(eventPublisher, times(1)).publishEvent(any(UserChangeEvent.class));
         verify(userRepository, times(1)).findById(anyLong());
         verify(userRepository, times(1)).deleteById(anyLong());
         verify(securityUtils, times(1)).userIsAdmin(any(UserDetails.class));
@@ -167,6 +196,7 @@ class UserServiceTest {
 
         service.deleteUser(0L);
 
+        verify(followRepository, times(1)).unfollowAll(0L);
         verify(userRepository, times(1)).findById(anyLong());
         verify(userRepository, times(1)).deleteById(anyLong());
         verify(securityUtils, times(1)).userIsAdmin(any(UserDetails.class));
@@ -220,6 +250,7 @@ class UserServiceTest {
 
         verify(userRepository, times(1)).findById(anyLong());
         verify(userRepository, times(1)).save(userEntity);
+        verify(eventPublisher, times(1)).publishEvent(any(UserChangeEvent.class));
         verifyNoMoreInteractions(userRepository);
         serviceMockedStatic.verify(AuthService::getCurrentUser, times(1));
         serviceMockedStatic.verifyNoMoreInteractions();
@@ -301,6 +332,74 @@ class UserServiceTest {
         serviceMockedStatic.verifyNoMoreInteractions();
     }
 
+    @Test
+    @DisplayName("Follow user")
+    void follow() {
+        @Cleanup
+        MockedStatic<AuthService> serviceMockedStatic = Mockito.mockStatic(AuthService.class);
+        serviceMockedStatic.when(AuthService::getCurrentUser).thenReturn(getUserDetails());
+        UserEntity followee = getDifferentUserEntity();
+        followee.setId(3L);
+        given(userRepository.getByEmail(anyString())).willReturn(getUserEntity());
+        given(userRepository.findById(anyLong())).willReturn(Optional.of(followee));
+        given(followRepository.follow(anyLong(), anyLong())).willReturn(true);
+
+        service.follow(3L);
+
+        verify(followRepository, times(1)).follow(2L, 3L);
+        verify(eventPublisher, times(1)).publishEvent(any(FollowChangeEvent.class));
+        verifyNoMoreInteractions(followRepository);
+    }
+
+    @Test
+    @DisplayName("Follow already followed user")
+    void follow_If_Already_Followed() {
+        @Cleanup
+        MockedStatic<AuthService> serviceMockedStatic = Mockito.mockStatic(AuthService.class);
+        serviceMockedStatic.when(AuthService::getCurrentUser).thenReturn(getUserDetails());
+        UserEntity followee = getDifferentUserEntity();
+        followee.setId(3L);
+        given(userRepository.getByEmail(anyString())).willReturn(getUserEntity());
+        given(userRepository.findById(anyLong())).willReturn(Optional.of(followee));
+        given(followRepository.follow(anyLong(), anyLong())).willReturn(false);
+
+        service.follow(3L);
+
+        verify(followRepository, times(1)).follow(2L, 3L);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Follow himself")
+    void follow_If_Self() {
+        @Cleanup
+        MockedStatic<AuthService> serviceMockedStatic = Mockito.mockStatic(AuthService.class);
+        serviceMockedStatic.when(AuthService::getCurrentUser).thenReturn(getUserDetails());
+        given(userRepository.getByEmail(anyString())).willReturn(getUserEntity());
+        given(userRepository.findById(anyLong())).willReturn(Optional.of(getUserEntity()));
+
+        SelfFollowException exception = Assertions.assertThrows(SelfFollowException.class, () -> service.follow(2L));
+
+        Assertions.assertEquals("You can't follow yourself", exception.getMessage());
+        verifyNoInteractions(followRepository);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Unfollow user")
+    void unfollow() {
+        @Cleanup
+        MockedStatic<AuthService> serviceMockedStatic = Mockito.mockStatic(AuthService.class);
+        serviceMockedStatic.when(AuthService::getCurrentUser).thenReturn(getUserDetails());
+        given(userRepository.getByEmail(anyString())).willReturn(getUserEntity());
+        given(followRepository.unfollow(anyLong(), anyLong())).willReturn(true);
+
+        service.unfollow(3L);
+
+        verify(followRepository, times(1)).unfollow(2L, 3L);
+        verify(eventPublisher, times(1)).publishEvent(any(FollowChangeEvent.class));
+    }
+
     @NotNull
     private UserDetailsImpl getUserDetails() {
         return UserDetailsImpl.builder()
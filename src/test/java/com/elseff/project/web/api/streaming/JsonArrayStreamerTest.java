@@ -0,0 +1,116 @@
+package com.elseff.project.web.api.streaming;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.ResponseEntity;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.BDDMockito.given;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class JsonArrayStreamerTest {
+
+    @Mock
+    DataSource dataSource;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    JsonArrayStreamer jsonArrayStreamer;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockitoAnnotations.openMocks(this);
+        given(dataSource.getConnection()).willThrow(new SQLException("no connection"));
+        jsonArrayStreamer = new JsonArrayStreamer(new ObjectMapper(), dataSource, transactionManager, 500, 1);
+    }
+
+    @Test
+    @DisplayName("Streams over the limit are refused until a stream has been written")
+    void maxConcurrent() throws Exception {
+        ResponseEntity<StreamingResponseBody> first = stream();
+
+        Assertions.assertThrows(TooManyStreamsException.class, this::stream);
+
+        StreamingResponseBody body = first.getBody();
+        Assertions.assertNotNull(body);
+        Assertions.assertThrows(CannotGetJdbcConnectionException.class,
+                () -> body.writeTo(new ByteArrayOutputStream()));
+
+        Assertions.assertNotNull(stream().getBody());
+    }
+
+    @Test
+    @DisplayName("The slot is given back when the async request ends without writing the stream")
+    void neverWritten() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        try {
+            WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+            asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(request, response));
+            asyncManager.setTaskExecutor(new SimpleAsyncTaskExecutor() {
+                @Override
+                public Future<?> submit(Runnable task) {
+                    throw new RejectedExecutionException("queue is full");
+                }
+            });
+
+            StreamingResponseBody body = stream().getBody();
+            Assertions.assertThrows(RejectedExecutionException.class,
+                    () -> asyncManager.startCallableProcessing(() -> body));
+            Assertions.assertThrows(TooManyStreamsException.class, this::stream);
+
+            Objects.requireNonNull(request.getAsyncContext()).complete();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        Assertions.assertNotNull(stream().getBody());
+    }
+
+    @Test
+    @DisplayName("Lists in memory don't count against the limit")
+    void inMemory() throws Exception {
+        stream();
+
+        StreamingResponseBody body = jsonArrayStreamer.stream(List.of(1, 2, 3), i -> i * 2).getBody();
+        Assertions.assertNotNull(body);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        body.writeTo(outputStream);
+
+        Assertions.assertEquals("[2,4,6]", outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream() {
+        return jsonArrayStreamer.stream("SELECT 1", preparedStatement -> {
+        }, (row, rowNumber) -> row.getInt(1));
+    }
+}